@@ -1,27 +1,116 @@
 package com.minecraft.k8s.config;
 
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.util.ClientBuilder;
 import io.kubernetes.client.util.KubeConfig;
+import jakarta.annotation.PreDestroy;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class K8sClientFactory {
-    
+
     private static final Logger log = LoggerFactory.getLogger(K8sClientFactory.class);
 
+    // 空闲连接保活时间：足够覆盖启动器轮询和缓存刷新间隔
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    // 每个集群保留的最大空闲连接数（HTTP/2 下一个连接即可多路复用）
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    // HTTP/2 ping 间隔，及时发现被中间设备断开的长连接
+    private static final long PING_INTERVAL_SECONDS = 30;
+
+    /**
+     * 长连接客户端注册表
+     * key = 集群 ID, value = kubeconfig 内容哈希 + 对应的 ApiClient
+     */
+    private final Map<Long, CachedClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * 获取集群对应的 ApiClient（复用连接池和 TLS 会话）
+     * kubeconfig 内容变化时自动重建
+     */
+    public ApiClient getClient(ClusterEntity cluster) {
+        String hash = hash(cluster.getKubeconfig());
+
+        CachedClient cached = clients.get(cluster.getId());
+        if (cached != null && cached.kubeconfigHash().equals(hash)) {
+            return cached.client();
+        }
+
+        return clients.compute(cluster.getId(), (id, existing) -> {
+            if (existing != null && existing.kubeconfigHash().equals(hash)) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("Kubeconfig changed for cluster {}, rebuilding client", id);
+                close(existing.client());
+            }
+            return new CachedClient(hash, tune(createClient(cluster.getKubeconfig())));
+        }).client();
+    }
+
+    /**
+     * 创建用于 Watch/Informer 的独立客户端
+     * Watch 长连接可能长时间没有数据，因此关闭读超时；由调用方负责关闭（见 ClusterInformers.stop）
+     */
+    public ApiClient createWatchClient(ClusterEntity cluster) {
+        ApiClient client = tune(createClient(cluster.getKubeconfig()));
+        client.setHttpClient(client.getHttpClient().newBuilder()
+                .readTimeout(0, TimeUnit.SECONDS)
+                .build());
+        return client;
+    }
+
+    /**
+     * 使集群的缓存客户端失效（集群更新或删除时调用）
+     */
+    public void invalidate(Long clusterId) {
+        CachedClient removed = clients.remove(clusterId);
+        if (removed != null) {
+            close(removed.client());
+            log.info("K8s client invalidated for cluster {}", clusterId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        if (event.type() != ClusterChangedEvent.Type.CREATED) {
+            invalidate(event.clusterId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(cached -> close(cached.client()));
+        clients.clear();
+    }
+
     public ApiClient createClient(String kubeconfigContent) {
         if (kubeconfigContent == null || kubeconfigContent.isBlank()) {
             throw new RuntimeException("Kubeconfig content is empty");
         }
-        
+
         String content = kubeconfigContent.trim();
-        
+
         // 尝试直接解析 YAML
         try {
             if (content.startsWith("apiVersion:") || content.contains("\napiVersion:")) {
@@ -30,7 +119,7 @@ public class K8sClientFactory {
         } catch (Exception e) {
             log.debug("Failed to parse as direct YAML: {}", e.getMessage());
         }
-        
+
         // 尝试 Base64 解码
         try {
             String decoded = new String(Base64.getDecoder().decode(content));
@@ -40,7 +129,7 @@ public class K8sClientFactory {
         } catch (Exception e) {
             log.debug("Failed to parse as Base64 encoded YAML: {}", e.getMessage());
         }
-        
+
         // 最后尝试直接解析（可能是其他格式）
         try {
             return ClientBuilder.kubeconfig(KubeConfig.loadKubeConfig(new StringReader(content))).build();
@@ -50,4 +139,38 @@ public class K8sClientFactory {
                     "Failed to parse kubeconfig. Ensure it is valid YAML format starting with 'apiVersion:'", e);
         }
     }
+
+    /**
+     * 为长期复用的客户端配置连接池：优先协商 HTTP/2，保持空闲连接并定期 ping
+     */
+    private ApiClient tune(ApiClient client) {
+        OkHttpClient httpClient = client.getHttpClient().newBuilder()
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .pingInterval(PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .build();
+        client.setHttpClient(httpClient);
+        return client;
+    }
+
+    private void close(ApiClient client) {
+        OkHttpClient httpClient = client.getHttpClient();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    private String hash(String kubeconfigContent) {
+        if (kubeconfigContent == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(kubeconfigContent.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedClient(String kubeconfigHash, ApiClient client) {
+    }
 }
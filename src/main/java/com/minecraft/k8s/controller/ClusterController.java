@@ -2,6 +2,7 @@ package com.minecraft.k8s.controller;
 
 import com.minecraft.k8s.domain.entity.ClusterEntity;
 import com.minecraft.k8s.service.ClusterService;
+import com.minecraft.k8s.service.ServerReconciler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +15,7 @@ import java.util.List;
 public class ClusterController {
 
     private final ClusterService clusterService;
+    private final ServerReconciler serverReconciler;
 
     @GetMapping
     public List<ClusterEntity> getAllClusters() {
@@ -27,6 +29,14 @@ public class ClusterController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 带有管理标签、但数据库中没有对应服务器的命名空间（最近一次对账的结果）
+     */
+    @GetMapping("/{id}/orphans")
+    public List<String> getOrphanedNamespaces(@PathVariable Long id) {
+        return serverReconciler.getOrphans(id);
+    }
+
     @PostMapping
     public ClusterEntity createCluster(@RequestBody ClusterEntity cluster) {
         return clusterService.createCluster(cluster);
@@ -1,18 +1,26 @@
 package com.minecraft.k8s.controller;
 
+import com.minecraft.k8s.domain.entity.ProvisioningJobEntity;
 import com.minecraft.k8s.domain.model.MinecraftServer;
+import com.minecraft.k8s.dto.BulkCreateServerRequest;
+import com.minecraft.k8s.dto.BulkJobResponse;
+import com.minecraft.k8s.dto.BulkServerNamesRequest;
+import com.minecraft.k8s.dto.BulkUpdateServerRequest;
 import com.minecraft.k8s.dto.CreateServerRequest;
 import com.minecraft.k8s.dto.UpdateServerRequest;
 import com.minecraft.k8s.service.MinecraftServerService;
+import com.minecraft.k8s.service.ProvisioningJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @Slf4j
@@ -23,29 +31,74 @@ import java.util.List;
 public class MinecraftServerController {
 
     private final MinecraftServerService serverService;
+    private final ProvisioningJobService jobService;
 
     @PostMapping
-    @Operation(summary = "创建 Minecraft 服务器", description = "在 Kubernetes 集群中创建一个新的 Minecraft 服务器实例")
-    public ResponseEntity<MinecraftServer> createServer(@Valid @RequestBody CreateServerRequest request) {
-        MinecraftServer server = serverService.createServer(request);
-        return ResponseEntity.ok(server);
+    @Operation(summary = "创建 Minecraft 服务器", description = "提交创建任务，返回任务信息，通过 /api/jobs/{id} 查询进度")
+    public ResponseEntity<ProvisioningJobEntity> createServer(@Valid @RequestBody CreateServerRequest request) {
+        return accepted(jobService.submitCreate(request));
     }
 
     @PutMapping("/{name}")
-    @Operation(summary = "更新 Minecraft 服务器", description = "根据 name 更新指定服务器的配置")
-    public ResponseEntity<MinecraftServer> updateServer(
+    @Operation(summary = "更新 Minecraft 服务器", description = "提交更新任务，返回任务信息，通过 /api/jobs/{id} 查询进度")
+    public ResponseEntity<ProvisioningJobEntity> updateServer(
             @Parameter(description = "服务器名称", example = "my-server") @PathVariable String name,
             @Valid @RequestBody UpdateServerRequest request) {
-        MinecraftServer server = serverService.updateServer(name, request);
-        return ResponseEntity.ok(server);
+        return accepted(jobService.submitUpdate(name, request));
     }
 
-    @DeleteMapping("/{name}")
-    @Operation(summary = "删除 Minecraft 服务器", description = "根据 name 从 Kubernetes 集群中删除指定的服务器")
-    public ResponseEntity<Void> deleteServer(
+    @PostMapping("/{name}/recreate")
+    @Operation(summary = "重建 Minecraft 服务器", description = "按数据库中的配置重新应用 K8s 资源，用于恢复状态为 MISSING 的服务器")
+    public ResponseEntity<ProvisioningJobEntity> recreateServer(
+            @Parameter(description = "服务器名称", example = "my-server") @PathVariable String name) {
+        return accepted(jobService.submitRecreate(name));
+    }
+
+    @PostMapping("/{name}/restart")
+    @Operation(summary = "重启 Minecraft 服务器", description = "提交滚动重启任务，配置和数据不变")
+    public ResponseEntity<ProvisioningJobEntity> restartServer(
             @Parameter(description = "服务器名称", example = "my-server") @PathVariable String name) {
-        serverService.deleteServer(name);
-        return ResponseEntity.ok().build();
+        return accepted(jobService.submitRestart(name));
+    }
+
+    @DeleteMapping("/{name}")
+    @Operation(summary = "删除 Minecraft 服务器", description = "提交删除任务，返回任务信息，通过 /api/jobs/{id} 查询进度")
+    public ResponseEntity<ProvisioningJobEntity> deleteServer(
+            @Parameter(description = "服务器名称", example = "my-server") @PathVariable String name,
+            @Parameter(description = "快速删除：只删除 Namespace，由集群后台级联删除其中的资源")
+            @RequestParam(defaultValue = "true") boolean fast) {
+        return accepted(jobService.submitDelete(name, fast));
+    }
+
+    @PostMapping("/bulk/create")
+    @Operation(summary = "批量创建 Minecraft 服务器",
+            description = "逐项提交创建任务，全部提交返回 202，部分条目被拒绝返回 207，结果中逐项给出任务 ID 或拒绝原因")
+    public ResponseEntity<BulkJobResponse> createServers(@Valid @RequestBody BulkCreateServerRequest request) {
+        return bulk(jobService.submitCreateAll(request.getServers()));
+    }
+
+    @PostMapping("/bulk/update")
+    @Operation(summary = "批量更新 Minecraft 服务器",
+            description = "逐项提交更新任务，全部提交返回 202，部分条目被拒绝返回 207，结果中逐项给出任务 ID 或拒绝原因")
+    public ResponseEntity<BulkJobResponse> updateServers(@Valid @RequestBody BulkUpdateServerRequest request) {
+        return bulk(jobService.submitUpdateAll(request.getServers()));
+    }
+
+    @PostMapping("/bulk/restart")
+    @Operation(summary = "批量重启 Minecraft 服务器",
+            description = "逐项提交重启任务，全部提交返回 202，部分条目被拒绝返回 207，结果中逐项给出任务 ID 或拒绝原因")
+    public ResponseEntity<BulkJobResponse> restartServers(@Valid @RequestBody BulkServerNamesRequest request) {
+        return bulk(jobService.submitRestartAll(request.getNames()));
+    }
+
+    @PostMapping("/bulk/delete")
+    @Operation(summary = "批量删除 Minecraft 服务器",
+            description = "逐项提交删除任务，全部提交返回 202，部分条目被拒绝返回 207，结果中逐项给出任务 ID 或拒绝原因")
+    public ResponseEntity<BulkJobResponse> deleteServers(
+            @Valid @RequestBody BulkServerNamesRequest request,
+            @Parameter(description = "快速删除：只删除 Namespace，由集群后台级联删除其中的资源")
+            @RequestParam(defaultValue = "true") boolean fast) {
+        return bulk(jobService.submitDeleteAll(request.getNames(), fast));
     }
 
     @GetMapping("/{name}")
@@ -62,4 +115,15 @@ public class MinecraftServerController {
         List<MinecraftServer> servers = serverService.listServers();
         return ResponseEntity.ok(servers);
     }
+
+    private static ResponseEntity<BulkJobResponse> bulk(BulkJobResponse response) {
+        return ResponseEntity.status(response.rejected() == 0 ? HttpStatus.ACCEPTED : HttpStatus.MULTI_STATUS)
+                .body(response);
+    }
+
+    private static ResponseEntity<ProvisioningJobEntity> accepted(ProvisioningJobEntity job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(job);
+    }
 }
@@ -0,0 +1,37 @@
+package com.minecraft.k8s.controller;
+
+import com.minecraft.k8s.domain.entity.ProvisioningJobEntity;
+import com.minecraft.k8s.service.ProvisioningJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Provisioning Job", description = "服务器编排任务 API")
+public class ProvisioningJobController {
+
+    private final ProvisioningJobService jobService;
+
+    @GetMapping
+    @Operation(summary = "批量获取任务状态", description = "根据任务 ID 列表查询任务状态，用于跟踪批量操作中每一项的执行结果")
+    public ResponseEntity<List<ProvisioningJobEntity>> getJobs(
+            @Parameter(description = "任务 ID 列表", example = "1,2,3") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(jobService.getJobs(ids));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "获取任务状态", description = "根据任务 ID 查询创建、更新、删除任务的执行状态")
+    public ResponseEntity<ProvisioningJobEntity> getJob(
+            @Parameter(description = "任务 ID", example = "1") @PathVariable Long id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -7,15 +7,19 @@ import com.minecraft.k8s.domain.valueobject.MinecraftConfig;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 /**
  * Minecraft 服务器实体（数据库）
+ * UPDATE 只包含有变化的列；已有记录的配置和状态由 MinecraftServerRepository 的定向 UPDATE 写入，
+ * 不通过 save() 合并游离实体，避免用读取时的旧状态覆盖 RolloutTracker 并发写入的状态
  */
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "minecraft_server")
 public class MinecraftServerEntity {
 
@@ -54,34 +58,69 @@ public class MinecraftServerEntity {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * 解码后的配置（每个实体实例最多解析一次，不参与持久化和 equals）
+     */
+    @Transient
+    private transient K8sConfig k8sConfigValue;
+
+    @Transient
+    private transient MinecraftConfig minecraftConfigValue;
+
+    public void setK8sConfig(String k8sConfig) {
+        this.k8sConfig = k8sConfig;
+        this.k8sConfigValue = null;
+    }
+
+    public void setMinecraftConfig(String minecraftConfig) {
+        this.minecraftConfig = minecraftConfig;
+        this.minecraftConfigValue = null;
+    }
+
     // JSON 转换辅助方法
+    // 返回的是缓存实例，修改后需调用对应的 set...Object 写回列
     public K8sConfig getK8sConfigObject() {
-        try {
-            return objectMapper.readValue(k8sConfig, K8sConfig.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to parse k8sConfig", e);
+        if (k8sConfigValue == null) {
+            try {
+                k8sConfigValue = objectMapper.readValue(k8sConfig, K8sConfig.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to parse k8sConfig", e);
+            }
         }
+        return k8sConfigValue;
     }
 
     public void setK8sConfigObject(K8sConfig config) {
         try {
-            this.k8sConfig = objectMapper.writeValueAsString(config);
+            String json = objectMapper.writeValueAsString(config);
+            // 内容未变化时不修改列，避免无意义的 UPDATE
+            if (!json.equals(this.k8sConfig)) {
+                this.k8sConfig = json;
+            }
+            this.k8sConfigValue = config;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize k8sConfig", e);
         }
     }
 
     public MinecraftConfig getMinecraftConfigObject() {
-        try {
-            return objectMapper.readValue(minecraftConfig, MinecraftConfig.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to parse minecraftConfig", e);
+        if (minecraftConfigValue == null) {
+            try {
+                minecraftConfigValue = objectMapper.readValue(minecraftConfig, MinecraftConfig.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to parse minecraftConfig", e);
+            }
         }
+        return minecraftConfigValue;
     }
 
     public void setMinecraftConfigObject(MinecraftConfig config) {
         try {
-            this.minecraftConfig = objectMapper.writeValueAsString(config);
+            String json = objectMapper.writeValueAsString(config);
+            if (!json.equals(this.minecraftConfig)) {
+                this.minecraftConfig = json;
+            }
+            this.minecraftConfigValue = config;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize minecraftConfig", e);
         }
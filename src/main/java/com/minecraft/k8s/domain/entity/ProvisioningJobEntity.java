@@ -0,0 +1,74 @@
+package com.minecraft.k8s.domain.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 服务器编排任务实体（数据库）
+ * 创建、更新、重启、删除服务器的请求先持久化为任务，再由按集群划分的工作线程异步执行
+ */
+@Data
+@Entity
+@Table(name = "provisioning_job", indexes = @Index(name = "idx_provisioning_job_status", columnList = "status"))
+public class ProvisioningJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Column(name = "cluster_id", nullable = false)
+    private Long clusterId;
+
+    @Column(name = "server_name", nullable = false)
+    private String serverName;
+
+    /**
+     * 请求内容（JSON），执行时反序列化
+     */
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    public enum Type {
+        CREATE,
+        UPDATE,
+        RECREATE,
+        RESTART,
+        DELETE
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
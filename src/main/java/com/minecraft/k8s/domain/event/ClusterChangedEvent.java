@@ -0,0 +1,15 @@
+package com.minecraft.k8s.domain.event;
+
+/**
+ * 集群变更事件
+ * 由 ClusterService 发布，各组件据此重建或释放按集群缓存的状态
+ * 在事务内发布，监听方使用 AFTER_COMMIT 阶段的 @TransactionalEventListener，回滚时不会收到事件
+ */
+public record ClusterChangedEvent(Long clusterId, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
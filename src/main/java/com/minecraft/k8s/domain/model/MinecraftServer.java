@@ -29,7 +29,7 @@ public class MinecraftServer {
     @Schema(description = "集群名称", example = "production-cluster")
     private String clusterName;
 
-    @Schema(description = "服务器状态", example = "RUNNING")
+    @Schema(description = "服务器状态", example = "READY")
     private String status;
 
     @Schema(description = "Kubernetes 资源配置")
@@ -0,0 +1,26 @@
+package com.minecraft.k8s.domain.valueobject;
+
+/**
+ * 服务器生命周期状态（存储在 MinecraftServerEntity.status 中）
+ *
+ * 除 ERROR 可能由创建失败直接写入、MISSING 由 ServerReconciler 写入、DELETING 由删除操作写入外，
+ * 其余状态由 RolloutTracker 根据 StatefulSet 和 Pod 的实际状态推导
+ */
+public enum ServerLifecycle {
+    /** 资源已提交，Pod 尚未调度或创建 */
+    CREATING,
+    /** 正在拉取镜像 / 创建容器 */
+    PULLING,
+    /** 容器已运行，等待就绪探针通过 */
+    STARTING,
+    /** 就绪且滚动更新已完成，可以接受玩家 */
+    READY,
+    /** 曾经就绪，现在未就绪（重启、探针失败或副本数为 0） */
+    DEGRADED,
+    /** 无法自行恢复的错误（镜像拉取失败、崩溃循环、创建失败等） */
+    ERROR,
+    /** 数据库中存在，但集群中找不到对应的 StatefulSet（可通过重建恢复） */
+    MISSING,
+    /** 已请求删除 Namespace，等待集群完成级联删除（完成后记录由 DeletionTracker 删除） */
+    DELETING
+}
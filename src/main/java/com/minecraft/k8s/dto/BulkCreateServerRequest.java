@@ -0,0 +1,19 @@
+package com.minecraft.k8s.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "批量创建 Minecraft 服务器请求")
+public class BulkCreateServerRequest {
+    @Valid
+    @NotEmpty(message = "Servers are required")
+    @Size(max = 200)
+    @Schema(description = "要创建的服务器（最多 200 个）", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<CreateServerRequest> servers;
+}
@@ -0,0 +1,28 @@
+package com.minecraft.k8s.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * 批量操作的提交结果
+ * 每一项要么提交成功并带有任务 ID（通过 /api/jobs 查询执行结果），要么带有拒绝原因
+ */
+@Schema(description = "批量操作结果")
+public record BulkJobResponse(
+        @Schema(description = "已提交的任务数") int submitted,
+        @Schema(description = "被拒绝的条目数") int rejected,
+        @Schema(description = "逐项结果，顺序与请求一致") List<Item> results) {
+
+    public static BulkJobResponse of(List<Item> results) {
+        int submitted = (int) results.stream().filter(item -> item.jobId() != null).count();
+        return new BulkJobResponse(submitted, results.size() - submitted, results);
+    }
+
+    @Schema(description = "单项结果")
+    public record Item(
+            @Schema(description = "服务器名称") String name,
+            @Schema(description = "任务 ID，被拒绝时为空") Long jobId,
+            @Schema(description = "拒绝原因，提交成功时为空") String error) {
+    }
+}
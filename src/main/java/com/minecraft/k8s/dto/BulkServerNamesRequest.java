@@ -0,0 +1,19 @@
+package com.minecraft.k8s.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "批量重启 / 删除 Minecraft 服务器请求")
+public class BulkServerNamesRequest {
+    @NotEmpty(message = "Names are required")
+    @Size(max = 200)
+    @Schema(description = "服务器名称（最多 200 个）", example = "[\"event-1\", \"event-2\"]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<@NotBlank String> names;
+}
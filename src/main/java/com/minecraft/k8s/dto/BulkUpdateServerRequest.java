@@ -0,0 +1,43 @@
+package com.minecraft.k8s.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "批量更新 Minecraft 服务器请求")
+public class BulkUpdateServerRequest {
+    @Valid
+    @NotEmpty(message = "Servers are required")
+    @Size(max = 200)
+    @Schema(description = "要更新的服务器及各自的变更（最多 200 个）", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Item> servers;
+
+    @Data
+    @Schema(description = "单个服务器的更新")
+    public static class Item {
+        @NotBlank(message = "Name is required")
+        @Schema(description = "服务器名称", example = "my-server", requiredMode = Schema.RequiredMode.REQUIRED)
+        private String name;
+
+        @Valid
+        @Schema(description = "Kubernetes 资源配置（可选更新）")
+        private UpdateServerRequest.UpdateK8sConfigDTO k8sConfig;
+
+        @Valid
+        @Schema(description = "Minecraft 服务器配置（可选更新）")
+        private UpdateServerRequest.UpdateMinecraftConfigDTO minecraftConfig;
+
+        public UpdateServerRequest toUpdateRequest() {
+            UpdateServerRequest request = new UpdateServerRequest();
+            request.setK8sConfig(k8sConfig);
+            request.setMinecraftConfig(minecraftConfig);
+            return request;
+        }
+    }
+}
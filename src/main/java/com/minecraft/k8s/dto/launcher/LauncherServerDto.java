@@ -26,7 +26,7 @@ public class LauncherServerDto {
     @Schema(description = "NodePort 端口", example = "31003")
     private Integer nodePort;
 
-    @Schema(description = "服务器状态", example = "RUNNING")
+    @Schema(description = "服务器状态", example = "READY")
     private String status;
 
     @Schema(description = "服务器类型", example = "PAPER")
@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * 服务器运行指标 DTO
  * 包含资源使用率和游戏状态信息
@@ -28,4 +30,16 @@ public class ServerMetricsDto {
 
     @Schema(description = "最大玩家数", example = "20")
     private Integer maxPlayers;
+
+    @Schema(description = "服务器描述 (MOTD)", example = "A Minecraft Server")
+    private String motd;
+
+    @Schema(description = "服务端报告的游戏版本", example = "1.20.1")
+    private String version;
+
+    @Schema(description = "插件信息", example = "Paper on 1.20.1: EssentialsX 2.20.1")
+    private String plugins;
+
+    @Schema(description = "在线玩家名称列表")
+    private List<String> players;
 }
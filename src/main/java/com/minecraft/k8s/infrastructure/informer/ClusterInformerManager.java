@@ -0,0 +1,101 @@
+package com.minecraft.k8s.infrastructure.informer;
+
+import com.minecraft.k8s.config.K8sClientFactory;
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
+import com.minecraft.k8s.repository.ClusterRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Informer 管理器
+ * 为每个已注册的集群维护一组 Informer，读操作优先走本地索引而不是 API Server
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterInformerManager {
+
+    private final ClusterRepository clusterRepository;
+    private final K8sClientFactory k8sClientFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${minecraft.informer.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Long, ClusterInformers> informers = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startAll() {
+        if (!enabled) {
+            log.info("Cluster informers disabled");
+            return;
+        }
+        clusterRepository.findAll().forEach(this::start);
+    }
+
+    // 事务提交后再重建，不在事务内创建 Watch 客户端，也不会读到随后回滚的集群配置
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        stop(event.clusterId());
+        if (event.type() != ClusterChangedEvent.Type.DELETED) {
+            clusterRepository.findById(event.clusterId()).ifPresent(this::start);
+        }
+    }
+
+    /**
+     * 获取已完成同步的集群 Informer
+     * 未启用、未启动或尚未同步时返回 empty，调用方应回退到直接访问 API Server
+     */
+    public Optional<ClusterInformers> get(Long clusterId) {
+        ClusterInformers clusterInformers = informers.get(clusterId);
+        if (clusterInformers == null || !clusterInformers.hasSynced()) {
+            return Optional.empty();
+        }
+        return Optional.of(clusterInformers);
+    }
+
+    @PreDestroy
+    public void stopAll() {
+        informers.keySet().forEach(this::stop);
+    }
+
+    private void start(ClusterEntity cluster) {
+        try {
+            ClusterInformers clusterInformers = new ClusterInformers(
+                    cluster.getId(), k8sClientFactory.createWatchClient(cluster));
+            ClusterInformers previous = informers.put(cluster.getId(), clusterInformers);
+            if (previous != null) {
+                previous.stop();
+            }
+            eventPublisher.publishEvent(new ClusterInformersStartedEvent(clusterInformers));
+            clusterInformers.start();
+            log.info("Informers started for cluster {} ({})", cluster.getId(), cluster.getName());
+        } catch (Exception e) {
+            log.error("Failed to start informers for cluster {}: {}", cluster.getId(), e.getMessage());
+        }
+    }
+
+    private void stop(Long clusterId) {
+        ClusterInformers clusterInformers = informers.remove(clusterId);
+        if (clusterInformers != null) {
+            clusterInformers.stop();
+            log.info("Informers stopped for cluster {}", clusterId);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.minecraft.k8s.infrastructure.informer;
+
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.informer.cache.Lister;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1NamespaceList;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.openapi.models.V1Service;
+import io.kubernetes.client.openapi.models.V1ServiceList;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetList;
+import io.kubernetes.client.util.CallGeneratorParams;
+import okhttp3.OkHttpClient;
+
+import java.util.List;
+
+/**
+ * 单个集群的 Informer 集合
+ * 监听带有 k8s-template.yaml 中标签的 Namespace、StatefulSet、Pod 和 Service，并维护本地索引；
+ * 列表和 watch 均使用服务端标签筛选，开销只与本应用管理的资源数量有关
+ */
+public class ClusterInformers {
+
+    public static final String APP_LABEL_SELECTOR = "app=minecraft-server";
+    public static final String SERVICE_LABEL_SELECTOR = "service=minecraft-server";
+
+    // Namespace 上的标签（见 k8s-template.yaml）
+    public static final String MANAGED_BY_LABEL = "app.kubernetes.io/managed-by";
+    public static final String NODE_PORT_LABEL = "minecraft.k8s/node-port";
+    public static final String NAMESPACE_LABEL_SELECTOR = MANAGED_BY_LABEL + "=minecraft-k8s-manager";
+
+    // 直接列出资源时的分页大小
+    public static final int LIST_PAGE_SIZE = 500;
+
+    private final Long clusterId;
+    private final ApiClient watchClient;
+    private final SharedInformerFactory factory;
+    private final SharedIndexInformer<V1Namespace> namespaceInformer;
+    private final SharedIndexInformer<V1StatefulSet> statefulSetInformer;
+    private final SharedIndexInformer<V1Pod> podInformer;
+    private final SharedIndexInformer<V1Service> serviceInformer;
+    private final Lister<V1Namespace> namespaceLister;
+    private final Lister<V1StatefulSet> statefulSetLister;
+    private final Lister<V1Pod> podLister;
+    private final Lister<V1Service> serviceLister;
+
+    ClusterInformers(Long clusterId, ApiClient watchClient) {
+        this.clusterId = clusterId;
+        this.watchClient = watchClient;
+        this.factory = new SharedInformerFactory(watchClient);
+
+        AppsV1Api appsApi = new AppsV1Api(watchClient);
+        CoreV1Api coreApi = new CoreV1Api(watchClient);
+
+        this.namespaceInformer = factory.sharedIndexInformerFor(
+                (CallGeneratorParams params) -> coreApi.listNamespace()
+                        .labelSelector(NAMESPACE_LABEL_SELECTOR)
+                        .resourceVersion(params.resourceVersion)
+                        .timeoutSeconds(params.timeoutSeconds)
+                        .watch(params.watch)
+                        .buildCall(null),
+                V1Namespace.class,
+                V1NamespaceList.class);
+
+        this.statefulSetInformer = factory.sharedIndexInformerFor(
+                (CallGeneratorParams params) -> appsApi.listStatefulSetForAllNamespaces()
+                        .labelSelector(APP_LABEL_SELECTOR)
+                        .resourceVersion(params.resourceVersion)
+                        .timeoutSeconds(params.timeoutSeconds)
+                        .watch(params.watch)
+                        .buildCall(null),
+                V1StatefulSet.class,
+                V1StatefulSetList.class);
+
+        this.podInformer = factory.sharedIndexInformerFor(
+                (CallGeneratorParams params) -> coreApi.listPodForAllNamespaces()
+                        .labelSelector(APP_LABEL_SELECTOR)
+                        .resourceVersion(params.resourceVersion)
+                        .timeoutSeconds(params.timeoutSeconds)
+                        .watch(params.watch)
+                        .buildCall(null),
+                V1Pod.class,
+                V1PodList.class);
+
+        this.serviceInformer = factory.sharedIndexInformerFor(
+                (CallGeneratorParams params) -> coreApi.listServiceForAllNamespaces()
+                        .labelSelector(SERVICE_LABEL_SELECTOR)
+                        .resourceVersion(params.resourceVersion)
+                        .timeoutSeconds(params.timeoutSeconds)
+                        .watch(params.watch)
+                        .buildCall(null),
+                V1Service.class,
+                V1ServiceList.class);
+
+        this.namespaceLister = new Lister<>(namespaceInformer.getIndexer());
+        this.statefulSetLister = new Lister<>(statefulSetInformer.getIndexer());
+        this.podLister = new Lister<>(podInformer.getIndexer());
+        this.serviceLister = new Lister<>(serviceInformer.getIndexer());
+    }
+
+    void start() {
+        factory.startAllRegisteredInformers();
+    }
+
+    /**
+     * 停止 Informer 并关闭专用的 watch 客户端（取消挂起的 watch 请求，释放线程池和连接池）
+     */
+    void stop() {
+        factory.stopAllRegisteredInformers();
+        OkHttpClient httpClient = watchClient.getHttpClient();
+        httpClient.dispatcher().cancelAll();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    public Long getClusterId() {
+        return clusterId;
+    }
+
+    /**
+     * 所有 Informer 是否已完成首次全量同步
+     */
+    public boolean hasSynced() {
+        return namespaceInformer.hasSynced() && statefulSetInformer.hasSynced()
+                && podInformer.hasSynced() && serviceInformer.hasSynced();
+    }
+
+    public SharedIndexInformer<V1Namespace> namespaceInformer() {
+        return namespaceInformer;
+    }
+
+    public SharedIndexInformer<V1StatefulSet> statefulSetInformer() {
+        return statefulSetInformer;
+    }
+
+    public SharedIndexInformer<V1Pod> podInformer() {
+        return podInformer;
+    }
+
+    public SharedIndexInformer<V1Service> serviceInformer() {
+        return serviceInformer;
+    }
+
+    // 以下读取方法返回的是缓存中的共享对象，调用方不得修改
+
+    public V1Namespace getNamespace(String name) {
+        return namespaceLister.get(name);
+    }
+
+    public List<V1Namespace> listNamespaces() {
+        return namespaceLister.list();
+    }
+
+    public V1StatefulSet getStatefulSet(String namespace, String name) {
+        return statefulSetLister.namespace(namespace).get(name);
+    }
+
+    public List<V1StatefulSet> listStatefulSets() {
+        return statefulSetLister.list();
+    }
+
+    public List<V1StatefulSet> listStatefulSets(String namespace) {
+        return statefulSetLister.namespace(namespace).list();
+    }
+
+    public V1Pod getPod(String namespace, String name) {
+        return podLister.namespace(namespace).get(name);
+    }
+
+    public List<V1Pod> listPods() {
+        return podLister.list();
+    }
+
+    public List<V1Pod> listPods(String namespace) {
+        return podLister.namespace(namespace).list();
+    }
+
+    public V1Service getService(String namespace, String name) {
+        return serviceLister.namespace(namespace).get(name);
+    }
+
+    public List<V1Service> listServices() {
+        return serviceLister.list();
+    }
+}
@@ -0,0 +1,7 @@
+package com.minecraft.k8s.infrastructure.informer;
+
+/**
+ * 集群 Informer 创建完成、即将启动时发布（同步），监听方可在此时注册事件处理器
+ */
+public record ClusterInformersStartedEvent(ClusterInformers informers) {
+}
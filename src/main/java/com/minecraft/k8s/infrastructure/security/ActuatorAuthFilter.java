@@ -0,0 +1,46 @@
+package com.minecraft.k8s.infrastructure.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Actuator 端点鉴权
+ *
+ * Actuator 端点不经过 MVC 拦截器，因此由过滤器按 AuthInterceptor 相同的 X-Auth-Token 校验；
+ * health 保持公开，供探针使用
+ */
+@Component
+@RequiredArgsConstructor
+public class ActuatorAuthFilter extends OncePerRequestFilter {
+
+    private static final String ACTUATOR_PATH = "/actuator";
+    private static final String HEALTH_PATH = ACTUATOR_PATH + "/health";
+
+    private final AuthInterceptor authInterceptor;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.equals(ACTUATOR_PATH) && !path.startsWith(ACTUATOR_PATH + "/")) {
+            return true;
+        }
+        return path.equals(HEALTH_PATH) || path.startsWith(HEALTH_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!authInterceptor.isAuthorized(request)) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
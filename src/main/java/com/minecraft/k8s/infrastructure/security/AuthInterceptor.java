@@ -19,11 +19,18 @@ public class AuthInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        String token = request.getHeader("X-Auth-Token");
-        if (token == null || !token.equals(authToken)) {
+        if (!isAuthorized(request)) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
         return true;
     }
+
+    /**
+     * 请求是否携带正确的 X-Auth-Token
+     */
+    public boolean isAuthorized(HttpServletRequest request) {
+        String token = request.getHeader("X-Auth-Token");
+        return token != null && token.equals(authToken);
+    }
 }
@@ -0,0 +1,149 @@
+package com.minecraft.k8s.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预先序列化的 JSON 响应体
+ *
+ * 同时保存原始和 gzip 压缩两种形式，以及基于内容哈希的 ETag。
+ * 内容未变化的轮询直接返回 304，不需要序列化也几乎不占带宽
+ */
+public final class CachedPayload {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final String etag;
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    private CachedPayload(String etag, byte[] identity, byte[] gzip) {
+        this.etag = etag;
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    /**
+     * 序列化为 JSON 并生成压缩版本和 ETag
+     */
+    public static CachedPayload ofJson(Object value) {
+        byte[] json = toJson(value);
+        return new CachedPayload(etag(json), json, gzip(json));
+    }
+
+    /**
+     * 使用与缓存响应相同的配置序列化为 JSON
+     */
+    public static byte[] toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize payload", e);
+        }
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public int getSize() {
+        return identity.length;
+    }
+
+    /**
+     * 未压缩的 JSON（共享数组，调用方不得修改）
+     */
+    public byte[] getIdentity() {
+        return identity;
+    }
+
+    /**
+     * 根据 If-None-Match 和 Accept-Encoding 构建响应
+     */
+    public ResponseEntity<byte[]> toResponse(HttpServletRequest request) {
+        CacheControl cacheControl = CacheControl.noCache();
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return builder.body(identity);
+    }
+
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // gzip;q=0 表示不接受
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to gzip payload", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,11 +1,19 @@
 package com.minecraft.k8s.mapper;
 
+import com.minecraft.k8s.domain.entity.ClusterEntity;
 import com.minecraft.k8s.domain.entity.MinecraftServerEntity;
 import com.minecraft.k8s.domain.model.MinecraftServer;
 import com.minecraft.k8s.repository.ClusterRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * 手动实现的 Mapper（因为涉及 JSON 转换）
  */
@@ -20,6 +28,38 @@ public class MinecraftServerMapper {
             return null;
         }
 
+        // 填充集群名称
+        String clusterName = null;
+        if (entity.getClusterId() != null) {
+            clusterName = clusterRepository.findById(entity.getClusterId())
+                    .map(ClusterEntity::getName)
+                    .orElse(null);
+        }
+
+        return toModel(entity, clusterName);
+    }
+
+    /**
+     * 批量转换，所有集群名称通过一次查询获取
+     */
+    public List<MinecraftServer> entitiesToModels(List<MinecraftServerEntity> entities) {
+        Set<Long> clusterIds = entities.stream()
+                .map(MinecraftServerEntity::getClusterId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, String> clusterNames = new HashMap<>();
+        if (!clusterIds.isEmpty()) {
+            clusterRepository.findAllById(clusterIds)
+                    .forEach(cluster -> clusterNames.put(cluster.getId(), cluster.getName()));
+        }
+
+        return entities.stream()
+                .map(entity -> toModel(entity, clusterNames.get(entity.getClusterId())))
+                .collect(Collectors.toList());
+    }
+
+    private MinecraftServer toModel(MinecraftServerEntity entity, String clusterName) {
         MinecraftServer server = new MinecraftServer();
         server.setId(entity.getId());
         server.setNamespace(entity.getNamespace());
@@ -29,12 +69,7 @@ public class MinecraftServerMapper {
         server.setStatus(entity.getStatus());
         server.setK8sConfig(entity.getK8sConfigObject());
         server.setMinecraftConfig(entity.getMinecraftConfigObject());
-
-        // 填充集群名称
-        if (entity.getClusterId() != null) {
-            clusterRepository.findById(entity.getClusterId())
-                    .ifPresent(cluster -> server.setClusterName(cluster.getName()));
-        }
+        server.setClusterName(clusterName);
 
         return server;
     }
@@ -2,22 +2,77 @@ package com.minecraft.k8s.repository;
 
 import com.minecraft.k8s.domain.entity.MinecraftServerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MinecraftServerRepository extends JpaRepository<MinecraftServerEntity, Long> {
     
     Optional<MinecraftServerEntity> findByName(String name);
+
+    List<MinecraftServerEntity> findByNameIn(Collection<String> names);
     
     Optional<MinecraftServerEntity> findByNamespace(String namespace);
     
     Optional<MinecraftServerEntity> findByNamespaceAndName(String namespace, String name);
+
+    List<MinecraftServerEntity> findByClusterId(Long clusterId);
     
     boolean existsByNodePort(Integer nodePort);
     
     @Query("SELECT MAX(e.nodePort) FROM MinecraftServerEntity e")
     Optional<Integer> findMaxNodePort();
+
+    @Query("SELECT e.nodePort FROM MinecraftServerEntity e")
+    List<Integer> findAllNodePorts();
+
+    List<MinecraftServerEntity> findByStatus(String status);
+
+    /**
+     * 批量更新状态（一条 UPDATE 覆盖同一集群、同一目标状态的所有服务器）
+     * 正在删除的服务器不再更新状态
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MinecraftServerEntity e SET e.status = :status, e.updatedAt = :now "
+            + "WHERE e.clusterId = :clusterId AND e.namespace IN :namespaces AND e.status <> :status "
+            + "AND e.status <> 'DELETING'")
+    int updateStatus(@Param("clusterId") Long clusterId, @Param("namespaces") Collection<String> namespaces,
+            @Param("status") String status, @Param("now") LocalDateTime now);
+
+    /**
+     * 只写入配置列
+     * 工作线程持有的是游离实体，save() 会合并其中读取时的旧状态，覆盖 RolloutTracker 并发写入的状态
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MinecraftServerEntity e SET e.k8sConfig = :k8sConfig, e.minecraftConfig = :minecraftConfig, "
+            + "e.updatedAt = :now WHERE e.id = :id")
+    int updateConfig(@Param("id") Long id, @Param("k8sConfig") String k8sConfig,
+            @Param("minecraftConfig") String minecraftConfig, @Param("now") LocalDateTime now);
+
+    /**
+     * 只写入单个服务器的状态（失败、开始删除等由工作线程决定的状态）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MinecraftServerEntity e SET e.status = :status, e.updatedAt = :now WHERE e.id = :id")
+    int updateStatusById(@Param("id") Long id, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    /**
+     * 批量删除 Namespace 已经消失的 DELETING 记录
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MinecraftServerEntity e "
+            + "WHERE e.clusterId = :clusterId AND e.namespace IN :namespaces AND e.status = 'DELETING'")
+    int deleteFinalized(@Param("clusterId") Long clusterId, @Param("namespaces") Collection<String> namespaces);
 }
@@ -0,0 +1,14 @@
+package com.minecraft.k8s.repository;
+
+import com.minecraft.k8s.domain.entity.ProvisioningJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProvisioningJobRepository extends JpaRepository<ProvisioningJobEntity, Long> {
+
+    List<ProvisioningJobEntity> findByStatusInOrderByIdAsc(Collection<ProvisioningJobEntity.Status> statuses);
+}
@@ -2,13 +2,17 @@ package com.minecraft.k8s.service;
 
 import com.minecraft.k8s.domain.entity.AnnouncementEntity;
 import com.minecraft.k8s.dto.AnnouncementDto;
+import com.minecraft.k8s.infrastructure.web.CachedPayload;
 import com.minecraft.k8s.repository.AnnouncementRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,6 +22,11 @@ public class AnnouncementService {
 
     private final AnnouncementRepository repository;
 
+    /**
+     * 启用公告的预序列化响应，公告变更提交后失效
+     */
+    private final AtomicReference<CachedPayload> activePayload = new AtomicReference<>();
+
     @Transactional
     public AnnouncementDto createAnnouncement(AnnouncementDto dto) {
         AnnouncementEntity entity = AnnouncementEntity.builder()
@@ -28,6 +37,7 @@ public class AnnouncementService {
                 .build();
 
         entity = repository.save(entity);
+        invalidateActivePayloadAfterCommit();
         log.info("Announcement created: {}", entity.getId());
         return toDto(entity);
     }
@@ -45,6 +55,7 @@ public class AnnouncementService {
         }
 
         entity = repository.save(entity);
+        invalidateActivePayloadAfterCommit();
         log.info("Announcement updated: {}", entity.getId());
         return toDto(entity);
     }
@@ -55,6 +66,7 @@ public class AnnouncementService {
             throw new IllegalArgumentException("Announcement not found: " + id);
         }
         repository.deleteById(id);
+        invalidateActivePayloadAfterCommit();
         log.info("Announcement deleted: {}", id);
     }
 
@@ -76,6 +88,32 @@ public class AnnouncementService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 获取启用公告的预序列化响应（带 ETag 和 gzip 版本）
+     */
+    public CachedPayload getActiveAnnouncementsPayload() {
+        CachedPayload payload = activePayload.get();
+        if (payload == null) {
+            payload = CachedPayload.ofJson(getActiveAnnouncements());
+            // 构建期间如果发生变更，失效操作会在之后再次清空，不会保留旧数据
+            activePayload.compareAndSet(null, payload);
+        }
+        return payload;
+    }
+
+    private void invalidateActivePayloadAfterCommit() {
+        activePayload.set(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 提交前可能有读请求用旧数据重建，提交后再清空一次
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activePayload.set(null);
+                }
+            });
+        }
+    }
+
     private AnnouncementDto toDto(AnnouncementEntity entity) {
         AnnouncementDto dto = new AnnouncementDto();
         dto.setId(entity.getId());
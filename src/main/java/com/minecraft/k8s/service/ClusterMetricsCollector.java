@@ -0,0 +1,241 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.config.K8sClientFactory;
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.dto.launcher.ServerMetricsDto;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import io.kubernetes.client.custom.ContainerMetrics;
+import io.kubernetes.client.custom.PodMetrics;
+import io.kubernetes.client.custom.PodMetricsList;
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 单个集群的 Pod 指标采集器
+ * 一次调用列出所有命名空间中 Minecraft Pod 的指标，并与本地缓存的容器资源限制关联
+ */
+@Slf4j
+class ClusterMetricsCollector {
+
+    // 资源限制缓存的有效期，过期后才重新列出 Pod
+    private static final long LIMITS_REFRESH_MILLIS = 60_000;
+
+    private final ClusterEntity cluster;
+    private final K8sClientFactory k8sClientFactory;
+    private final ClusterInformerManager informerManager;
+
+    /**
+     * 容器资源限制缓存
+     * key = namespace/podName, value = 第一个容器的 limits（未设置时为空 Map，同样是已知结果）
+     */
+    private volatile Map<String, Map<String, Quantity>> limits = Map.of();
+    private volatile long limitsLoadedAt;
+
+    ClusterMetricsCollector(ClusterEntity cluster, K8sClientFactory k8sClientFactory,
+            ClusterInformerManager informerManager) {
+        this.cluster = cluster;
+        this.k8sClientFactory = k8sClientFactory;
+        this.informerManager = informerManager;
+    }
+
+    /**
+     * 采集整个集群的指标快照
+     */
+    MetricsSnapshot collect() {
+        ApiClient client = k8sClientFactory.getClient(cluster);
+
+        // 1. 一次请求获取所有 Minecraft Pod 的指标
+        GenericKubernetesApi<PodMetrics, PodMetricsList> metricsApi = new GenericKubernetesApi<>(
+                PodMetrics.class,
+                PodMetricsList.class,
+                "metrics.k8s.io",
+                "v1beta1",
+                "pods",
+                client);
+        ListOptions options = new ListOptions();
+        options.setLabelSelector(ClusterInformers.APP_LABEL_SELECTOR);
+        KubernetesApiResponse<PodMetricsList> response = metricsApi.list(options);
+        if (!response.isSuccess() || response.getObject() == null || response.getObject().getItems() == null) {
+            log.warn("Failed to list pod metrics for cluster {}: HTTP {}",
+                    cluster.getId(), response.getHttpStatusCode());
+            return MetricsSnapshot.EMPTY;
+        }
+
+        // 2. 资源限制优先取自 Pod Informer 的本地索引；Informer 不可用时使用缓存，过期后才重新列出 Pod
+        // （新 Pod 的指标最多延迟一个有效期，避免每次采集都因个别 Pod 重新列表）
+        Map<String, Map<String, Quantity>> currentLimits;
+        Optional<ClusterInformers> informers = informerManager.get(cluster.getId());
+        if (informers.isPresent()) {
+            currentLimits = collectLimits(informers.get().listPods());
+        } else if (System.currentTimeMillis() - limitsLoadedAt > LIMITS_REFRESH_MILLIS) {
+            currentLimits = refreshLimits(client);
+        } else {
+            currentLimits = limits;
+        }
+
+        // 3. 关联指标与资源限制
+        Map<String, MetricsSnapshot.PodUsage> usages = new HashMap<>();
+        for (PodMetrics podMetrics : response.getObject().getItems()) {
+            String namespace = podMetrics.getMetadata().getNamespace();
+            String podName = podMetrics.getMetadata().getName();
+            if (podMetrics.getContainers() == null || podMetrics.getContainers().isEmpty()) {
+                continue;
+            }
+
+            Map<String, Quantity> podLimits = currentLimits.get(podKey(namespace, podName));
+            if (podLimits == null || podLimits.isEmpty()) {
+                log.debug("No resource limits defined for pod: {}/{}", namespace, podName);
+                continue;
+            }
+
+            ContainerMetrics containerMetrics = podMetrics.getContainers().get(0);
+            Map<String, Quantity> usage = containerMetrics.getUsage();
+
+            usages.put(MetricsSnapshot.key(namespace, statefulSetName(podName)), new MetricsSnapshot.PodUsage(
+                    calculateUsagePercent(usage.get("cpu"), podLimits.get("cpu")),
+                    calculateUsagePercent(usage.get("memory"), podLimits.get("memory"))));
+        }
+
+        log.debug("Collected metrics for {} pod(s) in cluster {}", usages.size(), cluster.getId());
+        return new MetricsSnapshot(Map.copyOf(usages));
+    }
+
+    /**
+     * 按标签分页列出所有 Minecraft Pod，刷新容器资源限制
+     */
+    private Map<String, Map<String, Quantity>> refreshLimits(ApiClient client) {
+        try {
+            CoreV1Api coreApi = new CoreV1Api(client);
+            List<V1Pod> pods = new ArrayList<>();
+            String continueToken = null;
+            do {
+                V1PodList page = coreApi.listPodForAllNamespaces()
+                        .labelSelector(ClusterInformers.APP_LABEL_SELECTOR)
+                        .limit(ClusterInformers.LIST_PAGE_SIZE)
+                        ._continue(continueToken)
+                        .execute();
+                pods.addAll(page.getItems());
+                continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+            } while (continueToken != null && !continueToken.isEmpty());
+
+            Map<String, Map<String, Quantity>> result = collectLimits(pods);
+            limits = result;
+            limitsLoadedAt = System.currentTimeMillis();
+            return result;
+        } catch (ApiException e) {
+            log.error("Failed to list pods for cluster {}: {}", cluster.getId(), e.getResponseBody());
+            // 同样等到下个有效期再重试
+            limitsLoadedAt = System.currentTimeMillis();
+            return limits;
+        }
+    }
+
+    private static Map<String, Map<String, Quantity>> collectLimits(List<V1Pod> pods) {
+        Map<String, Map<String, Quantity>> result = new HashMap<>();
+        for (V1Pod pod : pods) {
+            if (pod.getSpec() == null || pod.getSpec().getContainers().isEmpty()) {
+                continue;
+            }
+            V1Container container = pod.getSpec().getContainers().get(0);
+            Map<String, Quantity> podLimits = container.getResources() != null
+                    ? container.getResources().getLimits()
+                    : null;
+            result.put(podKey(pod.getMetadata().getNamespace(), pod.getMetadata().getName()),
+                    podLimits != null ? podLimits : Map.of());
+        }
+        return result;
+    }
+
+    private static String podKey(String namespace, String podName) {
+        return namespace + "/" + podName;
+    }
+
+    /**
+     * StatefulSet 的 Pod 名称格式: name-序号
+     */
+    private static String statefulSetName(String podName) {
+        int index = podName.lastIndexOf('-');
+        return index > 0 ? podName.substring(0, index) : podName;
+    }
+
+    /**
+     * 计算使用率百分比
+     *
+     * @param usage 当前使用量
+     * @param limit 资源限制
+     * @return 使用率百分比,如果计算失败返回 null
+     */
+    private static Double calculateUsagePercent(Quantity usage, Quantity limit) {
+        if (usage == null || limit == null) {
+            return null;
+        }
+
+        try {
+            // Quantity.getNumber() 返回 BigDecimal
+            BigDecimal usageValue = usage.getNumber();
+            BigDecimal limitValue = limit.getNumber();
+
+            if (limitValue.compareTo(BigDecimal.ZERO) == 0) {
+                return null;
+            }
+
+            // 计算百分比: (usage / limit) * 100
+            BigDecimal percent = usageValue
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(limitValue, 2, RoundingMode.HALF_UP);
+
+            return percent.doubleValue();
+        } catch (Exception e) {
+            log.error("Failed to calculate usage percent", e);
+            return null;
+        }
+    }
+
+    /**
+     * 集群指标快照（不可变）
+     * key = namespace/statefulSetName
+     */
+    record MetricsSnapshot(Map<String, PodUsage> usages) {
+
+        static final MetricsSnapshot EMPTY = new MetricsSnapshot(Map.of());
+
+        static String key(String namespace, String name) {
+            return namespace + "/" + name;
+        }
+
+        /**
+         * 查找服务器指标，每次返回新的 DTO 以免调用方修改快照
+         */
+        ServerMetricsDto find(String namespace, String name) {
+            PodUsage usage = usages.get(key(namespace, name));
+            if (usage == null) {
+                return null;
+            }
+            return ServerMetricsDto.builder()
+                    .cpuUsagePercent(usage.cpuPercent())
+                    .memoryUsagePercent(usage.memoryPercent())
+                    .build();
+        }
+
+        record PodUsage(Double cpuPercent, Double memoryPercent) {
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.minecraft.k8s.service;
 
 import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
 import com.minecraft.k8s.repository.ClusterRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import java.util.Optional;
 public class ClusterService {
 
     private final ClusterRepository clusterRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<ClusterEntity> getAllClusters() {
         return clusterRepository.findAll();
@@ -28,7 +31,9 @@ public class ClusterService {
         if (clusterRepository.findByName(cluster.getName()).isPresent()) {
             throw new IllegalArgumentException("Cluster with name " + cluster.getName() + " already exists");
         }
-        return clusterRepository.save(cluster);
+        ClusterEntity saved = clusterRepository.save(cluster);
+        eventPublisher.publishEvent(new ClusterChangedEvent(saved.getId(), ClusterChangedEvent.Type.CREATED));
+        return saved;
     }
 
     @Transactional
@@ -40,7 +45,10 @@ public class ClusterService {
         cluster.setKubeconfig(clusterDetails.getKubeconfig());
         cluster.setDomain(clusterDetails.getDomain());
 
-        return clusterRepository.save(cluster);
+        ClusterEntity saved = clusterRepository.save(cluster);
+        // kubeconfig 可能已变化，通知各组件丢弃按集群缓存的客户端和数据
+        eventPublisher.publishEvent(new ClusterChangedEvent(id, ClusterChangedEvent.Type.UPDATED));
+        return saved;
     }
 
     @Transactional
@@ -48,5 +56,6 @@ public class ClusterService {
         ClusterEntity cluster = clusterRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Cluster not found with id: " + id));
         clusterRepository.delete(cluster);
+        eventPublisher.publishEvent(new ClusterChangedEvent(id, ClusterChangedEvent.Type.DELETED));
     }
 }
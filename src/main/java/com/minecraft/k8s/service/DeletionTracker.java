@@ -0,0 +1,141 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.entity.MinecraftServerEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
+import com.minecraft.k8s.domain.valueobject.ServerLifecycle;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformersStartedEvent;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 删除跟踪器
+ *
+ * 快速删除只提交 Namespace 删除请求，记录保持 DELETING；Namespace 真正消失后才删除记录，
+ * 在此之前端口和命名空间不会被重新分配：
+ * - 带管理标签的 Namespace 通过 Informer 的删除事件感知，批量删除对应记录
+ * - 兜底：定期逐个确认 DELETING 记录的 Namespace 是否还存在（覆盖没有标签的旧 Namespace 和遗漏的事件）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeletionTracker {
+
+    private final MinecraftServerRepository repository;
+    private final ClusterService clusterService;
+    private final K8sCommandExecutor k8sExecutor;
+
+    /**
+     * 已从集群中消失的 Namespace
+     */
+    private final Set<Target> gone = ConcurrentHashMap.newKeySet();
+
+    @EventListener
+    public void onInformersStarted(ClusterInformersStartedEvent event) {
+        Long clusterId = event.informers().getClusterId();
+        event.informers().namespaceInformer().addEventHandler(new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(V1Namespace obj) {
+            }
+
+            @Override
+            public void onUpdate(V1Namespace oldObj, V1Namespace newObj) {
+            }
+
+            @Override
+            public void onDelete(V1Namespace obj, boolean deletedFinalStateUnknown) {
+                if (obj != null && obj.getMetadata() != null) {
+                    gone.add(new Target(clusterId, obj.getMetadata().getName()));
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        if (event.type() == ClusterChangedEvent.Type.DELETED) {
+            gone.removeIf(target -> target.clusterId().equals(event.clusterId()));
+        }
+    }
+
+    /**
+     * 批量删除已收到删除事件的记录
+     */
+    @Scheduled(fixedDelayString = "${minecraft.deletion.flush-millis:2000}")
+    public void flush() {
+        if (gone.isEmpty()) {
+            return;
+        }
+        Map<Long, List<String>> byCluster = new HashMap<>();
+        for (Iterator<Target> it = gone.iterator(); it.hasNext(); ) {
+            Target target = it.next();
+            it.remove();
+            byCluster.computeIfAbsent(target.clusterId(), id -> new ArrayList<>()).add(target.namespace());
+        }
+        byCluster.forEach(this::finalizeDeleted);
+    }
+
+    /**
+     * 兜底检查仍处于 DELETING 的记录
+     */
+    @Scheduled(fixedDelayString = "${minecraft.deletion.sweep-millis:30000}",
+            initialDelayString = "${minecraft.deletion.sweep-millis:30000}")
+    public void sweep() {
+        List<MinecraftServerEntity> deleting = repository.findByStatus(ServerLifecycle.DELETING.name());
+        if (deleting.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<String>> byCluster = new HashMap<>();
+        Map<Long, Optional<ClusterEntity>> clusters = new HashMap<>();
+        for (MinecraftServerEntity server : deleting) {
+            Optional<ClusterEntity> cluster = clusters.computeIfAbsent(server.getClusterId(),
+                    clusterService::getClusterById);
+            if (cluster.isEmpty()) {
+                continue;
+            }
+            try {
+                if (!k8sExecutor.namespaceExists(cluster.get(), server.getNamespace())) {
+                    byCluster.computeIfAbsent(server.getClusterId(), id -> new ArrayList<>())
+                            .add(server.getNamespace());
+                }
+            } catch (Exception e) {
+                log.warn("Failed to check namespace {} in cluster {}: {}",
+                        server.getNamespace(), server.getClusterId(), e.getMessage());
+            }
+        }
+        byCluster.forEach(this::finalizeDeleted);
+    }
+
+    private void finalizeDeleted(Long clusterId, List<String> namespaces) {
+        try {
+            int deleted = repository.deleteFinalized(clusterId, namespaces);
+            if (deleted > 0) {
+                log.info("Cluster {}: {} server(s) deleted after namespace removal", clusterId, deleted);
+            }
+        } catch (Exception e) {
+            // 由下次兜底检查重试
+            log.error("Failed to delete server records in cluster {}", clusterId, e);
+        }
+    }
+
+    private record Target(Long clusterId, String namespace) {
+    }
+}
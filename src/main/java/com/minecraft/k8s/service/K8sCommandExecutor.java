@@ -1,46 +1,258 @@
 package com.minecraft.k8s.service;
 
+import com.minecraft.k8s.config.K8sClientFactory;
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.custom.V1Patch;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.JSON;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1NamespaceList;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1PodTemplateSpec;
 import io.kubernetes.client.openapi.models.V1Service;
 import io.kubernetes.client.openapi.models.V1StatefulSet;
-import io.kubernetes.client.util.Yaml;
+import io.kubernetes.client.openapi.models.V1StatefulSetList;
+import io.kubernetes.client.util.PatchUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 /**
  * Kubernetes API 执行器
+ * 资源通过 server-side apply 提交，每个资源一次请求，不再先读取再替换；
+ * 每个资源带有期望状态哈希注解，哈希未变化的资源直接跳过
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class K8sCommandExecutor {
 
-    public void applyYaml(ApiClient apiClient, String yaml) {
+    // server-side apply 使用的字段管理者名称，必须固定不变
+    static final String FIELD_MANAGER = "minecraft-k8s-manager";
+
+    // 记录已应用的期望状态哈希，用于跳过未变化的资源
+    static final String SPEC_HASH_ANNOTATION = "minecraft.k8s/spec-hash";
+
+    // 与 kubectl rollout restart 使用相同的注解
+    static final String RESTARTED_AT_ANNOTATION = "kubectl.kubernetes.io/restartedAt";
+
+    private final K8sClientFactory k8sClientFactory;
+    private final ClusterInformerManager informerManager;
+    private final JSON json = new JSON();
+
+    /**
+     * 应用资源对象（由 K8sResourceBuilder 直接构建，无需解析 YAML）
+     *
+     * 按依赖层级执行：先应用 Namespace，再在虚拟线程上并发应用其余资源；
+     * 同一层级的失败会汇总后一起抛出，前一层级失败时不再执行后续层级
+     */
+    public void apply(ClusterEntity cluster, List<Object> resources) {
+        // 跳过期望状态未变化的资源
+        List<Object> changed = filterUnchanged(cluster, resources);
+        if (changed.isEmpty()) {
+            log.info("Resources unchanged, nothing to apply");
+            return;
+        }
+
+        ApiClient apiClient = k8sClientFactory.getClient(cluster);
+        CoreV1Api coreApi = new CoreV1Api(apiClient);
+        AppsV1Api appsApi = new AppsV1Api(apiClient);
+
+        // 按依赖层级分组
+        Map<Integer, List<Object>> levels = new TreeMap<>();
+        for (Object resource : changed) {
+            levels.computeIfAbsent(dependencyLevel(getKind(resource)), level -> new ArrayList<>()).add(resource);
+        }
+
+        for (List<Object> level : levels.values()) {
+            applyLevel(level, coreApi, appsApi);
+        }
+
+        log.info("Resources applied successfully");
+    }
+
+    /**
+     * 为每个资源写入期望状态哈希注解，并过滤掉集群中哈希一致的资源
+     *
+     * 现有资源从 Informer 缓存读取，不产生 API 请求；Informer 未同步时全部应用
+     */
+    private List<Object> filterUnchanged(ClusterEntity cluster, List<Object> resources) {
+        ClusterInformers informers = informerManager.get(cluster.getId()).orElse(null);
+
+        List<Object> changed = new ArrayList<>();
+        for (Object resource : resources) {
+            KubernetesObject object = (KubernetesObject) resource;
+            String hash = specHash(object);
+            object.getMetadata().putAnnotationsItem(SPEC_HASH_ANNOTATION, hash);
+
+            String kind = getKind(resource);
+            if (informers != null && hash.equals(currentSpecHash(kind, object.getMetadata(), informers))) {
+                log.debug("{} {}/{} unchanged, skipping", kind,
+                        object.getMetadata().getNamespace(), object.getMetadata().getName());
+                continue;
+            }
+            changed.add(resource);
+        }
+        return changed;
+    }
+
+    private static String currentSpecHash(String kind, V1ObjectMeta metadata, ClusterInformers informers) {
+        KubernetesObject current = switch (kind) {
+            // 旧版本创建的 Namespace 没有管理标签，不在 Informer 中，会被重新应用以补上标签
+            case "Namespace" -> informers.getNamespace(metadata.getName());
+            case "StatefulSet" -> informers.getStatefulSet(metadata.getNamespace(), metadata.getName());
+            case "Service" -> informers.getService(metadata.getNamespace(), metadata.getName());
+            default -> null;
+        };
+        if (current == null || current.getMetadata().getAnnotations() == null) {
+            return null;
+        }
+        return current.getMetadata().getAnnotations().get(SPEC_HASH_ANNOTATION);
+    }
+
+    /**
+     * 分页列出本应用管理的 Namespace（服务端按标签筛选，不会拉取集群中的其他命名空间）
+     */
+    public List<V1Namespace> listManagedNamespaces(ClusterEntity cluster) throws ApiException {
+        CoreV1Api coreApi = new CoreV1Api(k8sClientFactory.getClient(cluster));
+        List<V1Namespace> result = new ArrayList<>();
+        String continueToken = null;
+        do {
+            V1NamespaceList page = coreApi.listNamespace()
+                    .labelSelector(ClusterInformers.NAMESPACE_LABEL_SELECTOR)
+                    .limit(ClusterInformers.LIST_PAGE_SIZE)
+                    ._continue(continueToken)
+                    .execute();
+            result.addAll(page.getItems());
+            continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+        } while (continueToken != null && !continueToken.isEmpty());
+        return result;
+    }
+
+    /**
+     * 分页列出没有管理标签、且名称以指定前缀开头的 Namespace（旧版本创建，服务端按“无标签”筛选）
+     */
+    public List<V1Namespace> listUnlabelledNamespaces(ClusterEntity cluster, String namePrefix) throws ApiException {
+        CoreV1Api coreApi = new CoreV1Api(k8sClientFactory.getClient(cluster));
+        List<V1Namespace> result = new ArrayList<>();
+        String continueToken = null;
+        do {
+            V1NamespaceList page = coreApi.listNamespace()
+                    .labelSelector("!" + ClusterInformers.MANAGED_BY_LABEL)
+                    .limit(ClusterInformers.LIST_PAGE_SIZE)
+                    ._continue(continueToken)
+                    .execute();
+            for (V1Namespace namespace : page.getItems()) {
+                if (namespace.getMetadata().getName().startsWith(namePrefix)) {
+                    result.add(namespace);
+                }
+            }
+            continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+        } while (continueToken != null && !continueToken.isEmpty());
+        return result;
+    }
+
+    /**
+     * 分页列出所有命名空间中的 Minecraft StatefulSet（服务端按标签筛选）
+     */
+    public List<V1StatefulSet> listStatefulSets(ClusterEntity cluster) throws ApiException {
+        AppsV1Api appsApi = new AppsV1Api(k8sClientFactory.getClient(cluster));
+        List<V1StatefulSet> result = new ArrayList<>();
+        String continueToken = null;
+        do {
+            V1StatefulSetList page = appsApi.listStatefulSetForAllNamespaces()
+                    .labelSelector(ClusterInformers.APP_LABEL_SELECTOR)
+                    .limit(ClusterInformers.LIST_PAGE_SIZE)
+                    ._continue(continueToken)
+                    .execute();
+            result.addAll(page.getItems());
+            continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+        } while (continueToken != null && !continueToken.isEmpty());
+        return result;
+    }
+
+    /**
+     * 期望状态的内容哈希（在写入哈希注解之前计算）
+     */
+    private String specHash(KubernetesObject resource) {
         try {
-            // 解析 YAML 中的多个资源
-            List<Object> resources = Yaml.loadAll(yaml);
+            byte[] content = json.serialize(resource).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
-            CoreV1Api coreApi = new CoreV1Api(apiClient);
-            AppsV1Api appsApi = new AppsV1Api(apiClient);
+    /**
+     * 资源的依赖层级：命名空间内的资源依赖 Namespace 先存在
+     */
+    private static int dependencyLevel(String kind) {
+        return "Namespace".equals(kind) ? 0 : 1;
+    }
+
+    private void applyLevel(List<Object> resources, CoreV1Api coreApi, AppsV1Api appsApi) {
+        if (resources.size() == 1) {
+            applyOrThrow(resources.get(0), coreApi, appsApi);
+            return;
+        }
 
-            for (Object resource : resources) {
-                applyResource(resource, coreApi, appsApi);
+        List<RuntimeException> failures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> futures = resources.stream()
+                    .map(resource -> CompletableFuture.runAsync(
+                            () -> applyOrThrow(resource, coreApi, appsApi), executor))
+                    .toList();
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    failures.add(e.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new RuntimeException(e.getCause()));
+                }
             }
+        }
+
+        if (failures.size() == 1) {
+            throw failures.get(0);
+        }
+        if (!failures.isEmpty()) {
+            RuntimeException aggregated = new RuntimeException("Failed to apply " + failures.size() + " resources: "
+                    + failures.stream().map(Throwable::getMessage).collect(Collectors.joining("; ")));
+            failures.forEach(aggregated::addSuppressed);
+            throw aggregated;
+        }
+    }
 
-            log.info("YAML applied successfully");
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse YAML", e);
+    private void applyOrThrow(Object resource, CoreV1Api coreApi, AppsV1Api appsApi) {
+        try {
+            applyResource(resource, coreApi, appsApi);
         } catch (ApiException e) {
-            throw new RuntimeException("Failed to apply YAML: " + e.getResponseBody(), e);
+            throw new RuntimeException("Failed to apply " + getKind(resource) + ": " + e.getResponseBody(), e);
         }
     }
 
@@ -69,21 +281,14 @@ public class K8sCommandExecutor {
         V1Namespace namespace = (V1Namespace) resource;
 
         String name = namespace.getMetadata().getName();
+        V1Patch body = new V1Patch(json.serialize(namespace));
 
-        try {
-            // 尝试获取，如果存在则更新
-            api.readNamespace(name).execute();
-            api.replaceNamespace(name, namespace).execute();
-            log.info("Namespace updated: {}", name);
-        } catch (ApiException e) {
-            if (e.getCode() == 404) {
-                // 不存在则创建
-                api.createNamespace(namespace).execute();
-                log.info("Namespace created: {}", name);
-            } else {
-                throw e;
-            }
-        }
+        serverSideApply(V1Namespace.class, "Namespace " + name, api.getApiClient(),
+                force -> api.patchNamespace(name, body)
+                        .fieldManager(FIELD_MANAGER)
+                        .force(force)
+                        .buildCall(null));
+        log.info("Namespace applied: {}", name);
     }
 
     private void applyService(Object resource, CoreV1Api api) throws ApiException {
@@ -91,58 +296,84 @@ public class K8sCommandExecutor {
 
         String namespace = service.getMetadata().getNamespace();
         String name = service.getMetadata().getName();
+        V1Patch body = new V1Patch(json.serialize(service));
+
+        serverSideApply(V1Service.class, "Service " + namespace + "/" + name, api.getApiClient(),
+                force -> api.patchNamespacedService(name, namespace, body)
+                        .fieldManager(FIELD_MANAGER)
+                        .force(force)
+                        .buildCall(null));
+        log.info("Service applied: {}/{}", namespace, name);
+    }
+
+    private void applyStatefulSet(Object resource, AppsV1Api api) throws ApiException {
+        V1StatefulSet statefulSet = (V1StatefulSet) resource;
+
+        String namespace = statefulSet.getMetadata().getNamespace();
+        String name = statefulSet.getMetadata().getName();
+        V1Patch body = new V1Patch(json.serialize(statefulSet));
 
         try {
-            api.readNamespacedService(name, namespace).execute();
-            api.replaceNamespacedService(name, namespace, service).execute();
-            log.info("Service updated: {}/{}", namespace, name);
+            serverSideApply(V1StatefulSet.class, "StatefulSet " + namespace + "/" + name, api.getApiClient(),
+                    force -> api.patchNamespacedStatefulSet(name, namespace, body)
+                            .fieldManager(FIELD_MANAGER)
+                            .force(force)
+                            .buildCall(null));
+            log.info("StatefulSet applied: {}/{}", namespace, name);
         } catch (ApiException e) {
-            if (e.getCode() == 404) {
-                api.createNamespacedService(namespace, service).execute();
-                log.info("Service created: {}/{}", namespace, name);
+            // 修改了不可变字段（如 volumeClaimTemplates），只更新可变字段
+            if (e.getCode() == 422) {
+                log.warn("StatefulSet {}/{} changes immutable fields, updating mutable fields only", namespace, name);
+                replaceMutableFields(statefulSet, api);
             } else {
                 throw e;
             }
         }
     }
 
-    private void applyStatefulSet(Object resource, AppsV1Api api) throws ApiException {
-        V1StatefulSet newStatefulSet = (V1StatefulSet) resource;
-
+    /**
+     * 读取现有 StatefulSet，只替换可变字段
+     */
+    private void replaceMutableFields(V1StatefulSet newStatefulSet, AppsV1Api api) throws ApiException {
         String namespace = newStatefulSet.getMetadata().getNamespace();
         String name = newStatefulSet.getMetadata().getName();
 
-        try {
-            V1StatefulSet existingStatefulSet = api.readNamespacedStatefulSet(name, namespace).execute();
-
-            // Smart update: only update mutable fields
-            if (existingStatefulSet.getSpec() != null && newStatefulSet.getSpec() != null) {
-                existingStatefulSet.getSpec()
-                        .replicas(newStatefulSet.getSpec().getReplicas())
-                        .template(newStatefulSet.getSpec().getTemplate())
-                        .updateStrategy(newStatefulSet.getSpec().getUpdateStrategy())
-                        .minReadySeconds(newStatefulSet.getSpec().getMinReadySeconds())
-                        .revisionHistoryLimit(newStatefulSet.getSpec().getRevisionHistoryLimit());
-            }
+        V1StatefulSet existingStatefulSet = api.readNamespacedStatefulSet(name, namespace).execute();
 
-            // Update metadata
-            if (newStatefulSet.getMetadata().getAnnotations() != null) {
-                existingStatefulSet.getMetadata().setAnnotations(newStatefulSet.getMetadata().getAnnotations());
-            }
-            if (newStatefulSet.getMetadata().getLabels() != null) {
-                existingStatefulSet.getMetadata().setLabels(newStatefulSet.getMetadata().getLabels());
+        // Smart update: only update mutable fields
+        if (existingStatefulSet.getSpec() != null && newStatefulSet.getSpec() != null) {
+            // 保留现有 Pod 模板上的注解（如滚动重启写入的 restartedAt），否则模板变化会触发一次额外的滚动更新
+            V1PodTemplateSpec existingTemplate = existingStatefulSet.getSpec().getTemplate();
+            V1PodTemplateSpec newTemplate = newStatefulSet.getSpec().getTemplate();
+            if (existingTemplate != null && existingTemplate.getMetadata() != null
+                    && existingTemplate.getMetadata().getAnnotations() != null && newTemplate != null) {
+                if (newTemplate.getMetadata() == null) {
+                    newTemplate.setMetadata(new V1ObjectMeta());
+                }
+                Map<String, String> annotations = new HashMap<>(existingTemplate.getMetadata().getAnnotations());
+                if (newTemplate.getMetadata().getAnnotations() != null) {
+                    annotations.putAll(newTemplate.getMetadata().getAnnotations());
+                }
+                newTemplate.getMetadata().setAnnotations(annotations);
             }
+            existingStatefulSet.getSpec()
+                    .replicas(newStatefulSet.getSpec().getReplicas())
+                    .template(newStatefulSet.getSpec().getTemplate())
+                    .updateStrategy(newStatefulSet.getSpec().getUpdateStrategy())
+                    .minReadySeconds(newStatefulSet.getSpec().getMinReadySeconds())
+                    .revisionHistoryLimit(newStatefulSet.getSpec().getRevisionHistoryLimit());
+        }
 
-            api.replaceNamespacedStatefulSet(name, namespace, existingStatefulSet).execute();
-            log.info("StatefulSet updated: {}/{}", namespace, name);
-        } catch (ApiException e) {
-            if (e.getCode() == 404) {
-                api.createNamespacedStatefulSet(namespace, newStatefulSet).execute();
-                log.info("StatefulSet created: {}/{}", namespace, name);
-            } else {
-                throw e;
-            }
+        // Update metadata
+        if (newStatefulSet.getMetadata().getAnnotations() != null) {
+            existingStatefulSet.getMetadata().setAnnotations(newStatefulSet.getMetadata().getAnnotations());
+        }
+        if (newStatefulSet.getMetadata().getLabels() != null) {
+            existingStatefulSet.getMetadata().setLabels(newStatefulSet.getMetadata().getLabels());
         }
+
+        api.replaceNamespacedStatefulSet(name, namespace, existingStatefulSet).execute();
+        log.info("StatefulSet updated: {}/{}", namespace, name);
     }
 
     private void applyPvc(Object resource, CoreV1Api api) throws ApiException {
@@ -152,20 +383,44 @@ public class K8sCommandExecutor {
         String name = pvc.getMetadata().getName();
 
         try {
-            api.readNamespacedPersistentVolumeClaim(name, namespace).execute();
-            // PVC 不支持更新，跳过
-            log.info("PVC already exists: {}/{}", namespace, name);
+            api.createNamespacedPersistentVolumeClaim(namespace, pvc).execute();
+            log.info("PVC created: {}/{}", namespace, name);
         } catch (ApiException e) {
-            if (e.getCode() == 404) {
-                api.createNamespacedPersistentVolumeClaim(namespace, pvc).execute();
-                log.info("PVC created: {}/{}", namespace, name);
+            if (e.getCode() == 409) {
+                // PVC 不支持更新，跳过
+                log.info("PVC already exists: {}/{}", namespace, name);
             } else {
                 throw e;
             }
         }
     }
 
-    public void deleteResources(ApiClient apiClient, String namespace, String name) {
+    /**
+     * 以固定的字段管理者执行 server-side apply，每个资源只需一次请求
+     *
+     * 冲突（409）表示有字段被其他管理者（如 kubectl edit）修改过。
+     * 这些资源完全由本服务管理，记录冲突内容后强制接管字段所有权重试一次
+     */
+    private <T> T serverSideApply(Class<T> type, String description, ApiClient client, ApplyCall call)
+            throws ApiException {
+        try {
+            return PatchUtils.patch(type, () -> call.build(false), V1Patch.PATCH_FORMAT_APPLY_YAML, client);
+        } catch (ApiException e) {
+            if (e.getCode() != 409) {
+                throw e;
+            }
+            log.warn("Server-side apply conflict on {}, forcing field ownership: {}", description, e.getResponseBody());
+            return PatchUtils.patch(type, () -> call.build(true), V1Patch.PATCH_FORMAT_APPLY_YAML, client);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ApplyCall {
+        Call build(boolean force) throws ApiException;
+    }
+
+    public void deleteResources(ClusterEntity cluster, String namespace, String name) {
+        ApiClient apiClient = k8sClientFactory.getClient(cluster);
         CoreV1Api coreApi = new CoreV1Api(apiClient);
         AppsV1Api appsApi = new AppsV1Api(apiClient);
 
@@ -214,6 +469,56 @@ public class K8sCommandExecutor {
         log.info("Resources deleted: {}/{}", namespace, name);
     }
 
+    /**
+     * 只删除 Namespace，其中的资源由 API Server 在后台级联删除，请求被接受后立即返回
+     *
+     * @return Namespace 已不存在时返回 false
+     */
+    public boolean deleteNamespace(ClusterEntity cluster, String namespace) throws ApiException {
+        CoreV1Api coreApi = new CoreV1Api(k8sClientFactory.getClient(cluster));
+        try {
+            coreApi.deleteNamespace(namespace).propagationPolicy("Background").execute();
+            log.info("Namespace deletion requested: {}", namespace);
+            return true;
+        } catch (ApiException e) {
+            if (e.getCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 滚动重启 StatefulSet（与 kubectl rollout restart 相同：修改 Pod 模板上的重启时间注解）
+     *
+     * 注解由单独的补丁写入，不属于 server-side apply 管理的字段，之后的 apply 不会把它删掉
+     */
+    public void restartStatefulSet(ClusterEntity cluster, String namespace, String name) throws ApiException {
+        AppsV1Api appsApi = new AppsV1Api(k8sClientFactory.getClient(cluster));
+        String patch = "{\"spec\":{\"template\":{\"metadata\":{\"annotations\":{\"" + RESTARTED_AT_ANNOTATION
+                + "\":\"" + Instant.now() + "\"}}}}}";
+        PatchUtils.patch(V1StatefulSet.class,
+                () -> appsApi.patchNamespacedStatefulSet(name, namespace, new V1Patch(patch)).buildCall(null),
+                V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH, appsApi.getApiClient());
+        log.info("StatefulSet restart requested: {}/{}", namespace, name);
+    }
+
+    /**
+     * Namespace 是否仍然存在（包括正在终止的 Namespace）
+     */
+    public boolean namespaceExists(ClusterEntity cluster, String namespace) throws ApiException {
+        CoreV1Api coreApi = new CoreV1Api(k8sClientFactory.getClient(cluster));
+        try {
+            coreApi.readNamespace(namespace).execute();
+            return true;
+        } catch (ApiException e) {
+            if (e.getCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
     private String getKind(Object resource) {
         try {
             return (String) resource.getClass().getMethod("getKind").invoke(resource);
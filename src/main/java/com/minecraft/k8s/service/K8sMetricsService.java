@@ -1,79 +1,91 @@
 package com.minecraft.k8s.service;
 
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.minecraft.k8s.config.CacheConfig;
+import com.minecraft.k8s.config.K8sClientFactory;
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
 import com.minecraft.k8s.dto.launcher.ServerMetricsDto;
-import io.kubernetes.client.Metrics;
-import io.kubernetes.client.custom.ContainerMetrics;
-import io.kubernetes.client.custom.PodMetrics;
-import io.kubernetes.client.custom.PodMetricsList;
-import io.kubernetes.client.custom.Quantity;
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.apis.CoreV1Api;
-import io.kubernetes.client.openapi.models.V1Pod;
-import io.kubernetes.client.openapi.models.V1ResourceRequirements;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.service.ClusterMetricsCollector.MetricsSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Kubernetes Metrics 服务
  * 获取 Pod 的 CPU 和内存使用率
- * 
+ *
+ * 每个集群只维护一份指标快照，由 ClusterMetricsCollector 一次性批量采集，
+ * 单个服务器的查询只是快照中的 O(1) 查找
+ *
  * 注意: 需要 Kubernetes 集群安装 metrics-server
  * K3s 默认已安装,可以通过 kubectl top pods 验证
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class K8sMetricsService {
+public class K8sMetricsService implements MeterBinder {
+
+    // 最多同时保留的集群采集器数
+    private static final long MAX_CLUSTER_COLLECTORS = 64;
+    // 采集器闲置多久后回收
+    private static final long COLLECTOR_IDLE_MINUTES = 30;
 
     private final Executor cacheRefreshExecutor;
+    private final K8sClientFactory k8sClientFactory;
+    private final ClusterInformerManager informerManager;
 
     /**
-     * 存储每个 ApiClient 对应的缓存
-     * key = ApiClient hashCode, value = AsyncLoadingCache
+     * 按集群隔离的采集器注册表（有界，闲置自动回收）
      */
-    private final Map<Integer, AsyncLoadingCache<String, ServerMetricsDto>> cacheMap = new ConcurrentHashMap<>();
+    private final Cache<Long, ClusterMetricsCollector> collectors = Caffeine.newBuilder()
+            .maximumSize(MAX_CLUSTER_COLLECTORS)
+            .expireAfterAccess(COLLECTOR_IDLE_MINUTES, TimeUnit.MINUTES)
+            .build();
 
     /**
-     * 获取或创建指定 ApiClient 的缓存
+     * 集群指标快照缓存：key = 集群 ID, value = 最近一次采集的快照
      */
-    private AsyncLoadingCache<String, ServerMetricsDto> getOrCreateCache(ApiClient client) {
-        return cacheMap.computeIfAbsent(System.identityHashCode(client), k ->
-                CacheConfig.<String, ServerMetricsDto>newCacheBuilder()
-                        .buildAsync((key, executor) -> {
-                            String[] parts = key.split(":", 2);
-                            String namespace = parts[0];
-                            String podName = parts[1];
-                            return CompletableFuture.supplyAsync(
-                                    () -> doGetServerMetrics(client, namespace, podName),
-                                    cacheRefreshExecutor
-                            );
-                        })
-        );
-    }
+    private final AsyncLoadingCache<Long, MetricsSnapshot> snapshots = CacheConfig.<Long, MetricsSnapshot>newCacheBuilder()
+            .recordStats()
+            .buildAsync((clusterId, executor) -> {
+                ClusterMetricsCollector collector = collectors.getIfPresent(clusterId);
+                if (collector == null) {
+                    return CompletableFuture.completedFuture(MetricsSnapshot.EMPTY);
+                }
+                return CompletableFuture.supplyAsync(collector::collect, cacheRefreshExecutor);
+            });
 
     /**
      * 获取服务器指标(带异步刷新缓存)
-     * 
-     * @param client K8s API 客户端
+     *
+     * @param cluster 所属集群
      * @param namespace 命名空间
      * @param podName Pod 名称(StatefulSet 名称)
      * @return 服务器指标,如果获取失败返回 null
      */
-    public ServerMetricsDto getServerMetrics(ApiClient client, String namespace, String podName) {
+    public ServerMetricsDto getServerMetrics(ClusterEntity cluster, String namespace, String podName) {
         try {
-            String key = namespace + ":" + podName;
-            return getOrCreateCache(client).get(key).join();
+            collectors.get(cluster.getId(),
+                    id -> new ClusterMetricsCollector(cluster, k8sClientFactory, informerManager));
+            ServerMetricsDto metrics = snapshots.get(cluster.getId()).join().find(namespace, podName);
+            if (metrics == null) {
+                log.debug("Pod metrics not found for: {}/{}", namespace, podName);
+            }
+            return metrics;
         } catch (Exception e) {
             log.error("Failed to get metrics from cache: {}/{}", namespace, podName, e);
             return null;
@@ -81,113 +93,31 @@ public class K8sMetricsService {
     }
 
     /**
-     * 实际执行获取服务器指标
+     * 集群变更或删除时丢弃对应采集器和快照（采集器持有旧的集群配置）
      */
-    private ServerMetricsDto doGetServerMetrics(ApiClient client, String namespace, String podName) {
-        try {
-            // 1. 获取 Pod Metrics
-            Metrics metricsApi = new Metrics(client);
-            PodMetricsList podMetricsList = metricsApi.getPodMetrics(namespace);
-            
-            // 2. 查找对应的 Pod (StatefulSet 的 Pod 名称格式: podName-0)
-            PodMetrics podMetrics = podMetricsList.getItems().stream()
-                    .filter(pm -> pm.getMetadata().getName().startsWith(podName + "-"))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (podMetrics == null) {
-                log.warn("Pod metrics not found for: {}/{}", namespace, podName);
-                return null;
-            }
-            
-            // 3. 获取 Pod 信息(用于获取资源限制)
-            V1Pod pod = getPod(client, namespace, podMetrics.getMetadata().getName());
-            if (pod == null || pod.getSpec() == null || pod.getSpec().getContainers().isEmpty()) {
-                log.warn("Pod not found or has no containers: {}/{}", namespace, podName);
-                return null;
-            }
-            
-            // 4. 获取资源限制
-            V1ResourceRequirements resources = pod.getSpec().getContainers().get(0).getResources();
-            if (resources == null || resources.getLimits() == null) {
-                log.warn("No resource limits defined for pod: {}/{}", namespace, podName);
-                return null;
-            }
-            
-            Map<String, Quantity> limits = resources.getLimits();
-            Quantity cpuLimit = limits.get("cpu");
-            Quantity memoryLimit = limits.get("memory");
-            
-            // 5. 获取当前使用量
-            ContainerMetrics containerMetrics = podMetrics.getContainers().get(0);
-            Map<String, Quantity> usage = containerMetrics.getUsage();
-            Quantity cpuUsage = usage.get("cpu");
-            Quantity memoryUsage = usage.get("memory");
-            
-            // 6. 计算使用率
-            Double cpuPercent = calculateUsagePercent(cpuUsage, cpuLimit);
-            Double memoryPercent = calculateUsagePercent(memoryUsage, memoryLimit);
-            
-            log.debug("Metrics for pod {}/{}: CPU={}%, Memory={}%", 
-                    namespace, podName, cpuPercent, memoryPercent);
-            
-            return ServerMetricsDto.builder()
-                    .cpuUsagePercent(cpuPercent)
-                    .memoryUsagePercent(memoryPercent)
-                    .build();
-            
-        }catch(
-
-    Exception e)
-    {
-        log.error("Failed to get metrics for pod: {}/{}", namespace, podName, e);
-        return null;
-    }
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        collectors.invalidate(event.clusterId());
+        snapshots.synchronous().invalidate(event.clusterId());
     }
 
     /**
-     * 获取 Pod 信息
-     */
-    private V1Pod getPod(ApiClient client, String namespace, String podName) {
-        try {
-            CoreV1Api api = new CoreV1Api(client);
-            return api.readNamespacedPod(podName, namespace).execute();
-        } catch (ApiException e) {
-            log.error("Failed to get pod: {}/{}", namespace, podName, e);
-            return null;
-        }
-    }
-    
-    /**
-     * 计算使用率百分比
-     * 
-     * @param usage 当前使用量
-     * @param limit 资源限制
-     * @return 使用率百分比,如果计算失败返回 null
+     * 通过 Actuator 暴露缓存数量和命中率
      */
-    private Double calculateUsagePercent(Quantity usage, Quantity limit) {
-        if (usage == null || limit == null) {
-            return null;
-        }
-        
-        try {
-            // Quantity.getNumber() 返回 BigDecimal
-            BigDecimal usageValue = usage.getNumber();
-            BigDecimal limitValue = limit.getNumber();
-            
-            if (limitValue.compareTo(BigDecimal.ZERO) == 0) {
-                return null;
-            }
-            
-            // 计算百分比: (usage / limit) * 100
-            BigDecimal percent = usageValue
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(limitValue, 2, RoundingMode.HALF_UP);
-            
-            return percent.doubleValue();
-        } catch (Exception e) {
-            log.error("Failed to calculate usage percent", e);
-            return null;
-        }
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Cache<Long, MetricsSnapshot> cache = snapshots.synchronous();
+        Gauge.builder("k8s.metrics.cache.count", cache, Cache::estimatedSize)
+                .description("Number of cached per-cluster metrics snapshots")
+                .register(registry);
+        Gauge.builder("k8s.metrics.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Hit ratio of the per-cluster metrics snapshot cache")
+                .register(registry);
+        FunctionCounter.builder("k8s.metrics.cache.requests", cache, c -> c.stats().hitCount())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("k8s.metrics.cache.requests", cache, c -> c.stats().missCount())
+                .tag("result", "miss")
+                .register(registry);
     }
 }
@@ -0,0 +1,282 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.model.K8sResource;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1EnvVar;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1Service;
+import io.kubernetes.client.openapi.models.V1ServicePort;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.util.Yaml;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Kubernetes 资源构建器
+ *
+ * k8s-template.yaml 在启动时编译并解析一次，得到 Namespace、StatefulSet、Service 三个原型对象；
+ * 每次构建只对原型做一次深拷贝并填入参数，不再经过"渲染 YAML 字符串 → SnakeYAML 解析"的往返
+ *
+ * 原型中字符串参数的值为占位标记（如 __version__），构建时按标记替换；
+ * 数值和资源量参数先用合法的占位值解析，构建时直接覆盖对应字段
+ */
+@Slf4j
+@Component
+public class K8sResourceBuilder {
+
+    /**
+     * k8s-template.yaml 中允许使用的参数
+     */
+    static final List<String> TEMPLATE_PARAMS = List.of(
+            "namespace", "name", "replicas", "nodePort", "serverType", "onlineMode", "maxPlayers",
+            "initMemory", "maxMemory", "memoryLimit", "memoryRequest", "cpuLimit", "cpuRequest",
+            "storageSize", "storageClassName", "jvmOptions", "version", "modrinthProjects",
+            "modpackPlatform", "modrinthModpack", "worldBorderSize", "rconStartupCommands");
+
+
+    /**
+     * 非字符串参数在原型中的占位值（构建时覆盖）
+     */
+    private static final Map<String, String> TYPED_PLACEHOLDERS = Map.of(
+            "replicas", "1",
+            "nodePort", "30000",
+            "memoryLimit", "1Gi",
+            "memoryRequest", "1Gi",
+            "cpuLimit", "1",
+            "cpuRequest", "1",
+            "storageSize", "1Gi");
+
+    private static final String MARKER = "__";
+
+    private final JSON json = new JSON();
+
+    private V1Namespace namespacePrototype;
+    private V1StatefulSet statefulSetPrototype;
+    private V1Service servicePrototype;
+
+    /**
+     * 启动时读取、编译并解析模板，模板中出现未知参数或缺少资源时启动失败
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        YamlTemplate template = YamlTemplate.compile(loadTemplate(), TEMPLATE_PARAMS);
+
+        Map<String, String> placeholders = new HashMap<>();
+        for (String param : TEMPLATE_PARAMS) {
+            placeholders.put(param, TYPED_PLACEHOLDERS.getOrDefault(param, MARKER + param + MARKER));
+        }
+
+        for (Object resource : Yaml.loadAll(template.render(placeholders))) {
+            switch (resource) {
+                case V1Namespace namespace -> namespacePrototype = namespace;
+                case V1StatefulSet statefulSet -> statefulSetPrototype = statefulSet;
+                case V1Service service -> servicePrototype = service;
+                default -> throw new IllegalStateException(
+                        "Unsupported resource in k8s-template.yaml: " + resource.getClass().getSimpleName());
+            }
+        }
+        if (namespacePrototype == null || statefulSetPrototype == null || servicePrototype == null) {
+            throw new IllegalStateException("k8s-template.yaml must define a Namespace, a StatefulSet and a Service");
+        }
+        log.info("K8s resource prototypes loaded from k8s-template.yaml");
+    }
+
+    /**
+     * 构建服务器所需的全部资源，按 Namespace、StatefulSet、Service 顺序返回
+     */
+    public List<Object> build(K8sResource resource) {
+        Map<String, String> params = buildParams(resource);
+        return List.of(buildNamespace(resource), buildStatefulSet(resource, params), buildService(resource));
+    }
+
+    private V1Namespace buildNamespace(K8sResource resource) {
+        V1Namespace namespace = copy(namespacePrototype, V1Namespace.class);
+        namespace.getMetadata()
+                .name(resource.getNamespace())
+                .putLabelsItem(ClusterInformers.NODE_PORT_LABEL, String.valueOf(resource.getNodePort()));
+        return namespace;
+    }
+
+    private V1StatefulSet buildStatefulSet(K8sResource resource, Map<String, String> params) {
+        V1StatefulSet statefulSet = copy(statefulSetPrototype, V1StatefulSet.class);
+        statefulSet.getMetadata()
+                .name(resource.getName())
+                .namespace(resource.getNamespace());
+        statefulSet.getSpec()
+                .replicas(resource.getReplicas())
+                .serviceName(resource.getName());
+
+        for (V1Container container : statefulSet.getSpec().getTemplate().getSpec().getContainers()) {
+            if (container.getEnv() != null) {
+                for (V1EnvVar env : container.getEnv()) {
+                    env.setValue(substitute(env.getValue(), params));
+                }
+            }
+            if (container.getResources() != null) {
+                container.getResources()
+                        .putRequestsItem("memory", new Quantity(resource.getMemoryRequest()))
+                        .putRequestsItem("cpu", new Quantity(resource.getCpuRequest()))
+                        .putLimitsItem("memory", new Quantity(resource.getMemoryLimit()))
+                        .putLimitsItem("cpu", new Quantity(resource.getCpuLimit()));
+            }
+        }
+
+        if (statefulSet.getSpec().getVolumeClaimTemplates() != null) {
+            for (V1PersistentVolumeClaim claim : statefulSet.getSpec().getVolumeClaimTemplates()) {
+                claim.getSpec().setStorageClassName(resource.getStorageClassName());
+                claim.getSpec().getResources().putRequestsItem("storage", new Quantity(resource.getStorageSize()));
+            }
+        }
+        return statefulSet;
+    }
+
+    private V1Service buildService(K8sResource resource) {
+        V1Service service = copy(servicePrototype, V1Service.class);
+        service.getMetadata()
+                .name(resource.getName())
+                .namespace(resource.getNamespace());
+        for (V1ServicePort port : service.getSpec().getPorts()) {
+            port.setNodePort(resource.getNodePort());
+        }
+        return service;
+    }
+
+    /**
+     * 将占位标记替换为参数值
+     */
+    private static String substitute(String value, Map<String, String> params) {
+        if (value == null || value.length() <= MARKER.length() * 2
+                || !value.startsWith(MARKER) || !value.endsWith(MARKER)) {
+            return value;
+        }
+        String param = value.substring(MARKER.length(), value.length() - MARKER.length());
+        String replacement = params.get(param);
+        if (replacement == null) {
+            throw new IllegalArgumentException("Missing template value: " + param);
+        }
+        return replacement;
+    }
+
+    /**
+     * 深拷贝原型（Gson 序列化往返，远比 SnakeYAML 解析轻量）
+     */
+    private <T> T copy(T prototype, Class<T> type) {
+        return json.deserialize(json.serialize(prototype), type);
+    }
+
+    static String loadTemplate() throws IOException {
+        ClassPathResource resource = new ClassPathResource("k8s-template.yaml");
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+
+    private Map<String, String> buildParams(K8sResource resource) {
+        Map<String, String> params = new HashMap<>(TEMPLATE_PARAMS.size() * 2);
+        params.put("namespace", resource.getNamespace());
+        params.put("name", resource.getName());
+        params.put("replicas", String.valueOf(resource.getReplicas()));
+        params.put("nodePort", String.valueOf(resource.getNodePort()));
+        params.put("serverType", resource.getServerType());
+        params.put("onlineMode", String.valueOf(resource.getOnlineMode()).toUpperCase());
+        params.put("maxPlayers", String.valueOf(resource.getMaxPlayers()));
+        // 计算初始内存 (最大内存的 75%)
+        params.put("initMemory", calculateInitMemory(resource.getMaxMemory()));
+        params.put("maxMemory", resource.getMaxMemory());
+        params.put("memoryLimit", resource.getMemoryLimit());
+        params.put("memoryRequest", resource.getMemoryRequest());
+        params.put("cpuLimit", resource.getCpuLimit());
+        params.put("cpuRequest", resource.getCpuRequest());
+        params.put("storageSize", resource.getStorageSize());
+        params.put("storageClassName", resource.getStorageClassName());
+        params.put("jvmOptions", resource.getJvmOptions());
+        params.put("version", resource.getVersion() != null ? resource.getVersion() : "latest");
+
+        // Modrinth 模组列表（普通服务器 + Mods 模式）
+        // 将换行符替换为逗号，确保 YAML 格式正确
+        params.put("modrinthProjects", joinModrinthProjects(resource.getModrinthProjects()));
+
+        // Modrinth 整合包配置（整合包模式）
+        boolean modpack = resource.getModrinthModpack() != null && !resource.getModrinthModpack().isEmpty();
+        params.put("modpackPlatform", modpack ? "MODRINTH" : "");
+        params.put("modrinthModpack", modpack ? resource.getModrinthModpack() : "");
+
+        // 世界边界配置（用于 Chunky 预生成和 ChunkyBorder）
+        params.put("worldBorderSize",
+                resource.getWorldBorderSize() != null ? String.valueOf(resource.getWorldBorderSize()) : "0");
+        params.put("rconStartupCommands",
+                resource.getRconStartupCommands() != null ? resource.getRconStartupCommands() : "");
+
+        return params;
+    }
+
+    /**
+     * 将按行（或逗号）分隔的模组列表合并为逗号分隔，去除空项
+     * 例如: "a\r\nb\n\nc," -> "a,b,c"
+     */
+    private static String joinModrinthProjects(String projects) {
+        if (projects == null || projects.isEmpty()) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(projects.length());
+        boolean pendingSeparator = false;
+        for (int i = 0; i < projects.length(); i++) {
+            char c = projects.charAt(i);
+            if (c == '\r' || c == '\n' || c == ',') {
+                pendingSeparator = result.length() > 0;
+                continue;
+            }
+            if (pendingSeparator) {
+                result.append(',');
+                pendingSeparator = false;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 计算初始内存 (最大内存的 75%)
+     * 对于 Minecraft 服务器，建议初始内存接近最大内存，减少启动时的 GC 压力
+     * 例如: "3072M" -> "2304M", "2048M" -> "1536M"
+     */
+    private static String calculateInitMemory(String maxMemory) {
+        if (maxMemory == null || maxMemory.isEmpty()) {
+            return "512M"; // 默认值
+        }
+
+        try {
+            // 提取数字和单位
+            String numStr = maxMemory.replaceAll("[^0-9]", "");
+            String unit = maxMemory.replaceAll("[0-9]", "");
+
+            if (numStr.isEmpty()) {
+                return "512M";
+            }
+
+            int maxValue = Integer.parseInt(numStr);
+            int initValue = (int) (maxValue * 0.75); // 75%
+
+            return initValue + unit;
+        } catch (Exception e) {
+            log.warn("Failed to calculate init memory from: {}, using default", maxMemory);
+            return "512M";
+        }
+    }
+}
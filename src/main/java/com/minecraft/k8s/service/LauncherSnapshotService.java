@@ -0,0 +1,207 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.model.MinecraftServer;
+import com.minecraft.k8s.domain.valueobject.ServerLifecycle;
+import com.minecraft.k8s.dto.launcher.LauncherClusterDto;
+import com.minecraft.k8s.dto.launcher.LauncherServerDto;
+import com.minecraft.k8s.dto.launcher.ServerMetricsDto;
+import com.minecraft.k8s.infrastructure.web.CachedPayload;
+import com.minecraft.k8s.service.query.ServerStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * 启动器数据快照服务
+ *
+ * 后台按固定周期组装所有区服及服务器（含实时指标），生成不可变快照并预先序列化为 JSON
+ * （含 gzip 版本和 ETag），通过 AtomicReference 原子替换。启动器请求只读取内存中的最新快照，
+ * 开销与服务器数量和客户端数量无关
+ *
+ * 每次重建后将快照作为事件发布，供 LauncherStreamService 计算增量
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LauncherSnapshotService {
+
+    private final ClusterService clusterService;
+    private final MinecraftServerService serverService;
+    private final K8sMetricsService metricsService;
+    private final MinecraftQueryService queryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<LauncherSnapshot> current = new AtomicReference<>();
+
+    /**
+     * 获取最新快照，首次调用时同步构建
+     */
+    public LauncherSnapshot getSnapshot() {
+        LauncherSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * 定期重建快照
+     */
+    @Scheduled(fixedDelayString = "${launcher.snapshot.refresh-millis:5000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // 保留上一份快照
+            log.error("Failed to rebuild launcher snapshot", e);
+        }
+    }
+
+    /**
+     * 构建快照并原子替换
+     */
+    public synchronized LauncherSnapshot refresh() {
+        long start = System.currentTimeMillis();
+        List<LauncherClusterDto> clusters = assemble();
+        LauncherSnapshot snapshot = new LauncherSnapshot(clusters, CachedPayload.ofJson(clusters),
+                System.currentTimeMillis());
+        current.set(snapshot);
+        eventPublisher.publishEvent(snapshot);
+        log.debug("Launcher snapshot rebuilt in {} ms ({} bytes, etag {})",
+                snapshot.builtAt() - start, snapshot.payload().getSize(), snapshot.payload().getEtag());
+        return snapshot;
+    }
+
+    /**
+     * 组装所有区服及服务器，使用虚拟线程并发获取实时指标
+     */
+    private List<LauncherClusterDto> assemble() {
+        // 1. 获取所有集群和服务器（只展示可以接受玩家的服务器）
+        List<ClusterEntity> clusters = clusterService.getAllClusters();
+        Map<Long, List<MinecraftServer>> serversByCluster = serverService.listServers().stream()
+                .filter(server -> ServerLifecycle.READY.name().equals(server.getStatus()))
+                .collect(Collectors.groupingBy(MinecraftServer::getClusterId));
+
+        // 2. 所有服务器共用一个虚拟线程执行器并发获取指标，结果保持集群原有顺序
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<LauncherClusterDto>> futures = clusters.stream()
+                    .map(cluster -> {
+                        List<CompletableFuture<LauncherServerDto>> servers = serversByCluster
+                                .getOrDefault(cluster.getId(), Collections.emptyList()).stream()
+                                .map(server -> CompletableFuture.supplyAsync(
+                                        () -> buildLauncherServerDto(cluster, server), executor))
+                                .toList();
+                        return CompletableFuture.allOf(servers.toArray(CompletableFuture[]::new))
+                                .thenApply(done -> LauncherClusterDto.builder()
+                                        .id(cluster.getId())
+                                        .name(cluster.getName())
+                                        .domain(cluster.getDomain())
+                                        .servers(servers.stream().map(CompletableFuture::join).toList())
+                                        .build());
+                    })
+                    .toList();
+
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
+    }
+
+    /**
+     * 构建单个服务器的 LauncherServerDto
+     * 只提取启动器需要的信息
+     */
+    private LauncherServerDto buildLauncherServerDto(ClusterEntity cluster, MinecraftServer server) {
+        var config = server.getMinecraftConfig();
+
+        LauncherServerDto.LauncherServerDtoBuilder builder = LauncherServerDto.builder()
+                .id(server.getId())
+                .name(server.getName())
+                .nodePort(server.getNodePort())
+                .status(server.getStatus());
+
+        if (config != null) {
+            // 服务器类型和最大玩家数始终显示
+            builder.serverType(config.getServerType())
+                    .maxPlayers(config.getMaxPlayers());
+
+            // 正版验证始终显示
+            builder.onlineMode(config.getOnlineMode());
+
+            // 版本始终显示
+            builder.version(config.getVersion());
+
+            // 模组列表
+            if (config.getModrinthProjects() != null && !config.getModrinthProjects().isBlank()) {
+                builder.modrinthProjects(config.getModrinthProjects());
+            }
+
+            // 整合包
+            if (config.getModrinthModpack() != null && !config.getModrinthModpack().isBlank()) {
+                builder.modrinthModpack(config.getModrinthModpack());
+            }
+        }
+
+        LauncherServerDto dto = builder.build();
+
+        // 获取服务器指标
+        dto.setMetrics(getServerMetrics(cluster, server));
+
+        return dto;
+    }
+
+    /**
+     * 获取服务器运行指标（K8s 指标与服务器状态都来自各自的异步刷新缓存）
+     */
+    private ServerMetricsDto getServerMetrics(ClusterEntity cluster, MinecraftServer server) {
+        try {
+            ServerMetricsDto metrics = metricsService.getServerMetrics(cluster, server.getNamespace(),
+                    server.getName());
+            if (metrics == null) {
+                metrics = ServerMetricsDto.builder().build();
+            }
+
+            ServerStatus status = null;
+            if (cluster.getDomain() != null && !cluster.getDomain().isEmpty()) {
+                status = queryService.getServerStatus(cluster.getDomain(), server.getNodePort());
+            }
+            if (status != null) {
+                metrics.setOnlinePlayers(status.onlinePlayers());
+                metrics.setMaxPlayers(status.maxPlayers());
+                metrics.setMotd(status.motd());
+                metrics.setVersion(status.version());
+                metrics.setPlugins(status.plugins());
+                metrics.setPlayers(status.players());
+            }
+
+            // 服务器未返回最大玩家数时使用配置值
+            if (metrics.getMaxPlayers() == null && server.getMinecraftConfig() != null) {
+                metrics.setMaxPlayers(server.getMinecraftConfig().getMaxPlayers());
+            }
+
+            return metrics;
+        } catch (Exception e) {
+            // 如果获取指标失败,返回 null 而不是抛出异常
+            return null;
+        }
+    }
+
+    /**
+     * 启动器数据快照（构建后不再修改）
+     *
+     * @param clusters 区服及服务器列表
+     * @param payload  预先序列化的 JSON
+     * @param builtAt  构建时间
+     */
+    public record LauncherSnapshot(List<LauncherClusterDto> clusters, CachedPayload payload, long builtAt) {
+    }
+}
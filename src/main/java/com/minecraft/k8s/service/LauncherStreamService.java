@@ -0,0 +1,333 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.dto.launcher.LauncherClusterDto;
+import com.minecraft.k8s.dto.launcher.LauncherServerDto;
+import com.minecraft.k8s.infrastructure.web.CachedPayload;
+import com.minecraft.k8s.service.LauncherSnapshotService.LauncherSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 启动器数据推送服务（Server-Sent Events）
+ *
+ * 订阅后先推送一次完整快照（snapshot），之后只推送单个服务器的变更：
+ * - server: 服务器新增或变化（指标、状态、配置），data 为 {clusterId, server}
+ * - server-removed: 服务器被删除，data 为 {clusterId, serverId}
+ * 区服本身增删或改名时重新推送完整快照
+ *
+ * 每个事件只序列化一次，所有订阅者共享。每个订阅者有独立的虚拟线程负责发送，
+ * 待发送事件按服务器合并（同一服务器只保留最新一条），广播方从不阻塞；
+ * 积压超过上限时丢弃未发送的增量，改为发送一次最新的完整快照。
+ * 只有连续多次积压溢出且期间没有完成任何发送的订阅者才会被断开
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LauncherStreamService {
+
+    // 空闲时的心跳间隔，同时用于发现已断开的连接
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    private static final String SNAPSHOT_KEY = "*";
+    // 连续积压溢出（期间没有完成任何发送）达到此次数时断开订阅者
+    private static final int MAX_STALLED_OVERFLOWS = 3;
+
+    private final LauncherSnapshotService snapshotService;
+
+    @Value("${launcher.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${launcher.stream.max-pending:1000}")
+    private int maxPending;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong subscriberSequence = new AtomicLong();
+
+    /**
+     * 最近一次广播的快照（只在持有 this 锁时修改）
+     */
+    private LauncherSnapshot last;
+
+    /**
+     * 新建订阅
+     *
+     * @return SSE 连接，订阅者已达上限时返回 null
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Launcher stream subscriber limit reached ({})", maxSubscribers);
+            return null;
+        }
+
+        // 先在锁外确保快照已构建，避免与快照服务的锁相互等待
+        LauncherSnapshot initial = snapshotService.getSnapshot();
+
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // 与广播互斥，保证完整快照之后的增量都基于同一份快照
+        synchronized (this) {
+            subscribers.add(subscriber);
+            subscriber.offerSnapshot(last != null ? last : initial);
+        }
+
+        Thread.ofVirtual()
+                .name("launcher-stream-" + subscriberSequence.incrementAndGet())
+                .start(subscriber::run);
+        log.debug("Launcher stream subscribed ({} active)", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * 快照重建后计算增量并广播
+     */
+    @EventListener
+    public synchronized void onSnapshot(LauncherSnapshot snapshot) {
+        LauncherSnapshot previous = last;
+        last = snapshot;
+        if (previous == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        if (!sameClusters(previous.clusters(), snapshot.clusters())) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offerSnapshot(snapshot);
+            }
+            return;
+        }
+
+        Map<String, LauncherServerDto> before = index(previous.clusters());
+        Map<String, LauncherServerDto> after = index(snapshot.clusters());
+        for (LauncherClusterDto cluster : snapshot.clusters()) {
+            for (LauncherServerDto server : cluster.getServers()) {
+                String key = key(cluster.getId(), server.getId());
+                if (!server.equals(before.get(key))) {
+                    broadcast(key, event("server", new ServerDelta(cluster.getId(), server)));
+                }
+            }
+        }
+        for (LauncherClusterDto cluster : previous.clusters()) {
+            for (LauncherServerDto server : cluster.getServers()) {
+                String key = key(cluster.getId(), server.getId());
+                if (!after.containsKey(key)) {
+                    broadcast(key, event("server-removed", new ServerRemoved(cluster.getId(), server.getId())));
+                }
+            }
+        }
+    }
+
+    private void broadcast(String key, Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(key, event);
+        }
+    }
+
+    private static Set<DataWithMediaType> snapshotEvent(LauncherSnapshot snapshot) {
+        return SseEmitter.event()
+                .name("snapshot")
+                .data(snapshot.payload().getIdentity(), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private static Set<DataWithMediaType> event(String name, Object data) {
+        return SseEmitter.event()
+                .name(name)
+                .data(CachedPayload.toJson(data), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * 区服列表（ID、名称、域名及顺序）是否未变化
+     */
+    private static boolean sameClusters(List<LauncherClusterDto> previous, List<LauncherClusterDto> current) {
+        if (previous.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            LauncherClusterDto a = previous.get(i);
+            LauncherClusterDto b = current.get(i);
+            if (!Objects.equals(a.getId(), b.getId())
+                    || !Objects.equals(a.getName(), b.getName())
+                    || !Objects.equals(a.getDomain(), b.getDomain())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, LauncherServerDto> index(List<LauncherClusterDto> clusters) {
+        Map<String, LauncherServerDto> result = new HashMap<>();
+        for (LauncherClusterDto cluster : clusters) {
+            for (LauncherServerDto server : cluster.getServers()) {
+                result.put(key(cluster.getId(), server.getId()), server);
+            }
+        }
+        return result;
+    }
+
+    private static String key(Long clusterId, Long serverId) {
+        return clusterId + "/" + serverId;
+    }
+
+    record ServerDelta(Long clusterId, LauncherServerDto server) {
+    }
+
+    record ServerRemoved(Long clusterId, Long serverId) {
+    }
+
+    /**
+     * 单个订阅者：待发送事件按 key 合并，由专属虚拟线程发送
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Map<String, Set<DataWithMediaType>> pending = new LinkedHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        // 待发送的完整快照对应的快照对象，没有待发送快照时为 null
+        private LauncherSnapshot pendingSnapshot;
+        // 自上次完成发送以来的积压溢出次数
+        private int overflows;
+        private boolean stalled;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * 加入完整快照，覆盖之前所有未发送的增量，不会阻塞
+         */
+        void offerSnapshot(LauncherSnapshot snapshot) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                replaceWithSnapshot(snapshot);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 加入单个服务器的增量，不会阻塞（只在持有外部 this 锁时调用，last 即正在广播的快照）
+         */
+        void offer(String key, Set<DataWithMediaType> event) {
+            lock.lock();
+            try {
+                // 待发送的完整快照就是正在广播的快照时，已包含这次变更
+                if (closed || stalled || pendingSnapshot == last) {
+                    return;
+                }
+                pending.remove(key);
+                pending.put(key, event);
+                if (pending.size() > maxPending) {
+                    overflows++;
+                    if (overflows >= MAX_STALLED_OVERFLOWS) {
+                        stalled = true;
+                        pending.clear();
+                        pendingSnapshot = null;
+                    } else {
+                        replaceWithSnapshot(last);
+                    }
+                }
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void replaceWithSnapshot(LauncherSnapshot snapshot) {
+            pending.clear();
+            pending.put(SNAPSHOT_KEY, snapshotEvent(snapshot));
+            pendingSnapshot = snapshot;
+        }
+
+        void run() {
+            try {
+                while (true) {
+                    List<Set<DataWithMediaType>> batch;
+                    lock.lock();
+                    try {
+                        if (pending.isEmpty() && !closed && !stalled) {
+                            notEmpty.await(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                        }
+                        if (closed) {
+                            return;
+                        }
+                        if (stalled) {
+                            log.warn("Dropping stalled launcher stream subscriber ({} overflows without progress)",
+                                    MAX_STALLED_OVERFLOWS);
+                            emitter.complete();
+                            return;
+                        }
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        pendingSnapshot = null;
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    }
+                    for (Set<DataWithMediaType> event : batch) {
+                        emitter.send(event);
+                    }
+
+                    // 发送完成，说明订阅者仍在消费
+                    lock.lock();
+                    try {
+                        overflows = 0;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开
+                log.debug("Launcher stream subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                pending.clear();
+                pendingSnapshot = null;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
@@ -1,204 +1,167 @@
 package com.minecraft.k8s.service;
 
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.minecraft.k8s.config.CacheConfig;
+import com.minecraft.k8s.service.query.QueryEngine;
+import com.minecraft.k8s.service.query.ServerListPingClient;
+import com.minecraft.k8s.service.query.ServerStatus;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.InetAddress;
-import java.net.SocketTimeoutException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import java.net.InetSocketAddress;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Minecraft Query 协议客户端
- * 用于获取服务器状态和在线玩家数
+ * 用于获取服务器状态、在线玩家列表、MOTD、版本和插件信息
+ *
+ * 查询本身由 QueryEngine（UDP Query）或 ServerListPingClient（TCP Server List Ping）
+ * 在各自的 I/O 线程上异步完成，刷新线程只负责 DNS 解析
+ *
+ * 每个 host:port 记住上次应答的协议，下次直接使用；两种协议都无应答的端点
+ * 按指数退避跳过，避免已停止的服务器持续占用刷新资源
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MinecraftQueryService {
 
-    private static final int TIMEOUT_MS = 3000;
-    private static final byte HANDSHAKE_TYPE = 9;
-    private static final byte STAT_TYPE = 0;
+    // 首次失败后的退避时间，之后每次失败翻倍
+    private static final long BACKOFF_BASE_MILLIS = 30_000;
+    private static final long BACKOFF_MAX_MILLIS = 10 * 60_000;
+    // 端点状态闲置多久后回收（服务器已删除等情况）
+    private static final long ENDPOINT_IDLE_HOURS = 1;
+    // 单个协议的最长等待时间（Query 最多三次往返：缓存 token、握手、状态请求），兜底防止结果永远不完成
+    private static final long PROTOCOL_TIMEOUT_MILLIS = 10_000;
+    // 调用方的最长等待时间：DNS 解析 + 两种协议依次尝试
+    private static final long STATUS_WAIT_MILLIS = 2 * PROTOCOL_TIMEOUT_MILLIS + 5_000;
 
     private final Executor cacheRefreshExecutor;
+    private final QueryEngine queryEngine;
+    private final ServerListPingClient pingClient;
 
     /**
-     * 异步加载缓存：key = "host:port", value = 在线玩家数
+     * 端点探测状态：key = "host:port"
      */
-    private AsyncLoadingCache<String, Integer> playerCountCache;
+    private final Cache<String, EndpointState> endpoints = Caffeine.newBuilder()
+            .expireAfterAccess(ENDPOINT_IDLE_HOURS, TimeUnit.HOURS)
+            .build();
+
+    /**
+     * 异步加载缓存：key = "host:port", value = 服务器状态
+     */
+    private AsyncLoadingCache<String, ServerStatus> statusCache;
 
     @PostConstruct
     public void init() {
-        playerCountCache = CacheConfig.<String, Integer>newCacheBuilder()
-                .buildAsync((key, executor) -> {
-                    String[] parts = key.split(":");
-                    String host = parts[0];
-                    int port = Integer.parseInt(parts[1]);
-                    return CompletableFuture.supplyAsync(() -> doGetOnlinePlayerCount(host, port), cacheRefreshExecutor);
-                });
+        statusCache = CacheConfig.<String, ServerStatus>newCacheBuilder()
+                .buildAsync((key, executor) -> load(key));
     }
 
-    /**
-     * 获取在线玩家数(带异步刷新缓存)
-     * 
-     * @param host 服务器地址
-     * @param port 服务器端口
-     * @return 在线玩家数,如果获取失败返回 null
-     */
-    public Integer getOnlinePlayerCount(String host, int port) {
-        try {
-            String key = host + ":" + port;
-            return playerCountCache.get(key).join();
-        } catch (Exception e) {
-            log.error("Failed to get player count from cache: {}:{}", host, port, e);
-            return null;
+    private CompletableFuture<ServerStatus> load(String key) {
+        EndpointState state = endpoints.getIfPresent(key);
+        if (state != null && state.isBackingOff(System.currentTimeMillis())) {
+            log.debug("Skipping status query for {} (no response, backing off)", key);
+            return CompletableFuture.completedFuture(null);
         }
+
+        String[] parts = key.split(":");
+        String host = parts[0];
+        int port = Integer.parseInt(parts[1]);
+
+        // 优先使用上次应答的协议，失败时再尝试另一种；未知时先试开销更小的 Query
+        Protocol first = state != null && state.protocol() != null ? state.protocol() : Protocol.QUERY;
+        Protocol second = first == Protocol.QUERY ? Protocol.SLP : Protocol.QUERY;
+
+        return CompletableFuture
+                .supplyAsync(() -> new InetSocketAddress(host, port), cacheRefreshExecutor)
+                .thenCompose(address -> query(first, address)
+                        .thenCompose(status -> status != null
+                                ? CompletableFuture.completedFuture(new Answer(first, status))
+                                : query(second, address).thenApply(fallback -> new Answer(second, fallback))))
+                .thenApply(answer -> {
+                    record(key, answer);
+                    return answer.status();
+                });
     }
 
-    /**
-     * 实际执行 Query 协议获取玩家数
-     */
-    private Integer doGetOnlinePlayerCount(String host, int port) {
-
-        try (DatagramSocket socket = new DatagramSocket()) {
-            socket.setSoTimeout(TIMEOUT_MS);
-
-            InetAddress address = InetAddress.getByName(host);
-
-            // 1. 发送握手请求
-            int sessionId = (int) (System.currentTimeMillis() & 0x0F0F0F0F);
-            byte[] handshakeRequest = createHandshakeRequest(sessionId);
-            DatagramPacket handshakePacket = new DatagramPacket(
-                    handshakeRequest, handshakeRequest.length, address, port);
-            socket.send(handshakePacket);
-
-            // 2. 接收握手响应
-            byte[] handshakeResponse = new byte[1024];
-            DatagramPacket handshakeReceive = new DatagramPacket(handshakeResponse, handshakeResponse.length);
-            socket.receive(handshakeReceive);
-
-            // 3. 解析 challenge token
-            String challengeToken = parseHandshakeResponse(handshakeResponse);
-            if (challengeToken == null) {
-                return null;
-            }
-
-            // 4. 发送状态请求
-            byte[] statRequest = createStatRequest(sessionId, Integer.parseInt(challengeToken));
-            DatagramPacket statPacket = new DatagramPacket(
-                    statRequest, statRequest.length, address, port);
-            socket.send(statPacket);
-
-            // 5. 接收状态响应
-            byte[] statResponse = new byte[4096];
-            DatagramPacket statReceive = new DatagramPacket(statResponse, statResponse.length);
-            socket.receive(statReceive);
-            // 6. 解析在线玩家数
-            Integer playerCount = parsePlayerCount(statResponse, statReceive.getLength());
-
-            if (playerCount != null) {
-                log.info("✅ Query successful - {}:{} has {} player(s) online", host, port, playerCount);
-            } else {
-                log.warn("❌ Query failed - Could not parse player count from {}:{}", host, port);
-            }
-
-            return playerCount;
-
-        } catch (SocketTimeoutException e) {
-            log.warn("❌ Query timeout for {}:{} (server may not have Query enabled)", host, port);
-            return null;
-        } catch (IOException e) {
-            log.error("❌ Query I/O error for {}:{} - {}", host, port, e.getMessage());
-            return null;
-        } catch (Exception e) {
-            log.error("❌ Unexpected error querying server: {}:{}", host, port, e);
-            return null;
-        }
+    private CompletableFuture<ServerStatus> query(Protocol protocol, InetSocketAddress address) {
+        CompletableFuture<ServerStatus> result = protocol == Protocol.QUERY
+                ? queryEngine.queryStatus(address)
+                : pingClient.ping(address);
+        // 在副本上设置超时，不修改 I/O 线程持有的 future
+        return result.copy().completeOnTimeout(null, PROTOCOL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * 创建握手请求包
+     * 记录端点应答的协议，或在无应答时延长退避时间
      */
-    private byte[] createHandshakeRequest(int sessionId) {
-        ByteBuffer buffer = ByteBuffer.allocate(7);
-        buffer.order(ByteOrder.BIG_ENDIAN);
-        buffer.putShort((short) 0xFEFD); // Magic
-        buffer.put(HANDSHAKE_TYPE); // Type
-        buffer.putInt(sessionId); // Session ID
-        return buffer.array();
+    private void record(String key, Answer answer) {
+        if (answer.status() != null) {
+            endpoints.put(key, new EndpointState(answer.protocol(), 0, 0));
+            return;
+        }
+        endpoints.asMap().compute(key, (k, previous) -> {
+            int failures = previous == null ? 1 : previous.failures() + 1;
+            long backoff = Math.min(BACKOFF_BASE_MILLIS << Math.min(failures - 1, 16), BACKOFF_MAX_MILLIS);
+            log.warn("❌ {} answered neither Query nor Server List Ping, backing off {}s", key, backoff / 1000);
+            return new EndpointState(previous == null ? null : previous.protocol(), failures,
+                    System.currentTimeMillis() + backoff);
+        });
     }
 
     /**
-     * 解析握手响应,提取 challenge token
+     * 获取服务器状态(带异步刷新缓存)
+     *
+     * @param host 服务器地址
+     * @param port 服务器端口
+     * @return 服务器状态,如果获取失败返回 null
      */
-    private String parseHandshakeResponse(byte[] response) {
+    public ServerStatus getServerStatus(String host, int port) {
         try {
-            // 跳过前 5 个字节 (type + session id)
-            int offset = 5;
-            StringBuilder token = new StringBuilder();
-            while (offset < response.length && response[offset] != 0) {
-                token.append((char) response[offset]);
-                offset++;
-            }
-            return token.toString();
+            String key = host + ":" + port;
+            return statusCache.get(key).get(STATUS_WAIT_MILLIS, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
-            log.error("Failed to parse handshake response", e);
+            log.error("Failed to get server status from cache: {}:{}", host, port, e);
             return null;
         }
     }
 
     /**
-     * 创建状态请求包
+     * 获取在线玩家数(带异步刷新缓存)
+     *
+     * @param host 服务器地址
+     * @param port 服务器端口
+     * @return 在线玩家数,如果获取失败返回 null
      */
-    private byte[] createStatRequest(int sessionId, int challengeToken) {
-        ByteBuffer buffer = ByteBuffer.allocate(15);
-        buffer.order(ByteOrder.BIG_ENDIAN);
-        buffer.putShort((short) 0xFEFD); // Magic
-        buffer.put(STAT_TYPE); // Type
-        buffer.putInt(sessionId); // Session ID
-        buffer.putInt(challengeToken); // Challenge token
-        buffer.putInt(0); // Padding for full stat
-        return buffer.array();
+    public Integer getOnlinePlayerCount(String host, int port) {
+        ServerStatus status = getServerStatus(host, port);
+        return status != null ? status.onlinePlayers() : null;
+    }
+
+    private enum Protocol {
+        QUERY,
+        SLP
+    }
+
+    private record Answer(Protocol protocol, ServerStatus status) {
     }
 
     /**
-     * 解析状态响应,提取在线玩家数
+     * @param protocol 上次应答的协议，未知时为 null
+     * @param failures 连续无应答次数
+     * @param retryAt  退避结束时间
      */
-    private Integer parsePlayerCount(byte[] response, int length) {
-        try {
-            String data = new String(response, 0, length, StandardCharsets.UTF_8);
-
-            // 查找 "numplayers" 字段
-            String numPlayersKey = "numplayers";
-            int index = data.indexOf(numPlayersKey);
-            if (index == -1) {
-                log.warn("numplayers field not found in response");
-                return null;
-            }
-
-            // 跳过 key 和 null 字节,读取值
-            int valueStart = index + numPlayersKey.length() + 1;
-            StringBuilder value = new StringBuilder();
-            while (valueStart < data.length() && data.charAt(valueStart) != '\0') {
-                value.append(data.charAt(valueStart));
-                valueStart++;
-            }
-
-            return Integer.parseInt(value.toString());
-        } catch (Exception e) {
-            log.error("Failed to parse player count", e);
-            return null;
+    private record EndpointState(Protocol protocol, int failures, long retryAt) {
+
+        boolean isBackingOff(long now) {
+            return now < retryAt;
         }
     }
 }
@@ -5,22 +5,18 @@ import com.minecraft.k8s.domain.model.K8sResource;
 import com.minecraft.k8s.domain.model.MinecraftServer;
 import com.minecraft.k8s.domain.valueobject.K8sConfig;
 import com.minecraft.k8s.domain.valueobject.MinecraftConfig;
+import com.minecraft.k8s.domain.valueobject.ServerLifecycle;
 import com.minecraft.k8s.dto.CreateServerRequest;
 import com.minecraft.k8s.dto.UpdateServerRequest;
 import com.minecraft.k8s.mapper.MinecraftServerMapper;
 import com.minecraft.k8s.repository.MinecraftServerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 基于 YAML 模板的服务实现
@@ -36,10 +32,11 @@ public class MinecraftServerService {
     private final MinecraftServerMapper mapper;
     private final ResourceCalculator resourceCalculator;
     private final ClusterService clusterService;
-    private final com.minecraft.k8s.config.K8sClientFactory k8sClientFactory;
+    private final K8sResourceBuilder resourceBuilder;
 
     // @Transactional removed to prevent rollback on K8s failure
-    public synchronized MinecraftServer createServer(CreateServerRequest request) {
+    // 由 ProvisioningJobService 在集群工作线程中调用，端口分配由 PortAllocator 自行保证互斥
+    public MinecraftServer createServer(CreateServerRequest request) {
         // 检查名称是否已存在
         if (repository.findByName(request.getName()).isPresent()) {
             throw new IllegalArgumentException("Server name already exists: " + request.getName());
@@ -49,11 +46,8 @@ public class MinecraftServerService {
         com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(request.getClusterId())
                 .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + request.getClusterId()));
 
-        // 创建 K8s 客户端
-        io.kubernetes.client.openapi.ApiClient client = k8sClientFactory.createClient(cluster.getKubeconfig());
-
         // 自动分配端口 (从 K8s 查询)
-        Integer nodePort = portAllocator.allocatePort(client);
+        Integer nodePort = portAllocator.allocatePort(cluster);
         // 根据端口号生成命名空间
         String namespace = portAllocator.generateNamespace(nodePort);
 
@@ -72,7 +66,7 @@ public class MinecraftServerService {
         entity.setClusterId(cluster.getId());
         entity.setK8sConfigObject(k8sConfig);
         entity.setMinecraftConfigObject(minecraftConfig);
-        entity.setStatus("CREATING");
+        entity.setStatus(ServerLifecycle.CREATING.name());
 
         entity = repository.save(entity);
 
@@ -81,23 +75,16 @@ public class MinecraftServerService {
         server.validate();
 
         try {
-            // 生成 YAML 并应用到 K8s
-            String yaml = generateYaml(server);
-            // io.kubernetes.client.openapi.ApiClient client =
-            // k8sClientFactory.createClient(cluster.getKubeconfig()); // Already created
-            // above
-            k8sExecutor.applyYaml(client, yaml);
-
-            // 更新状态
-            entity.setStatus("RUNNING");
-            repository.save(entity);
+            // 构建资源对象并应用到 K8s
+            List<Object> resources = buildResources(server);
+            k8sExecutor.apply(cluster, resources);
 
+            // 状态保持 CREATING，之后由 RolloutTracker 根据 Pod 实际状态推进
             log.info("Server created: {}", server.getFullName());
             return server;
         } catch (Exception e) {
             // 创建失败，更新状态
-            entity.setStatus("ERROR");
-            repository.save(entity);
+            markStatus(entity, ServerLifecycle.ERROR);
             throw new RuntimeException("Failed to create server in K8s", e);
         }
     }
@@ -112,65 +99,128 @@ public class MinecraftServerService {
         K8sConfig k8sConfig = entity.getK8sConfigObject();
         MinecraftConfig minecraftConfig = entity.getMinecraftConfigObject();
 
-        // 更新 K8s 配置
+        // 更新 K8s 配置（只序列化有变更的配置）
         if (request.getK8sConfig() != null) {
             updateK8sConfig(k8sConfig, request.getK8sConfig());
+            entity.setK8sConfigObject(k8sConfig);
         }
 
         // 更新 Minecraft 配置
         if (request.getMinecraftConfig() != null) {
             updateMinecraftConfig(minecraftConfig, request.getMinecraftConfig(), k8sConfig.getMemoryLimit());
+            entity.setMinecraftConfigObject(minecraftConfig);
         }
 
-        // 保存更新后的配置
-        entity.setK8sConfigObject(k8sConfig);
-        entity.setMinecraftConfigObject(minecraftConfig);
-
         // 转换为领域模型并验证
         MinecraftServer server = mapper.entityToModel(entity);
 
         try {
-            // 生成并应用新的 YAML
-            String yaml = generateYaml(server);
+            // 构建并应用新的资源对象
+            List<Object> resources = buildResources(server);
             com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
                     .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
-            io.kubernetes.client.openapi.ApiClient client = k8sClientFactory.createClient(cluster.getKubeconfig());
-            k8sExecutor.applyYaml(client, yaml);
+            k8sExecutor.apply(cluster, resources);
 
-            // 更新数据库
-            entity.setStatus("RUNNING");
-            repository.save(entity);
+            // 只写入配置列，状态由 RolloutTracker 维护
+            repository.updateConfig(entity.getId(), entity.getK8sConfig(), entity.getMinecraftConfig(),
+                    LocalDateTime.now());
 
             log.info("Server updated: {}", server.getFullName());
             return server;
         } catch (Exception e) {
-            entity.setStatus("ERROR");
-            repository.save(entity);
+            markStatus(entity, ServerLifecycle.ERROR);
             throw new RuntimeException("Failed to update server in K8s", e);
         }
     }
 
-    @Transactional
-    public void deleteServer(String name) {
+    /**
+     * 按数据库中的配置重新应用全部资源，用于恢复在集群中丢失的服务器
+     * （未变化的资源由期望状态哈希跳过，状态由 RolloutTracker 随 Pod 事件更新）
+     */
+    public void recreateServer(String name) {
         MinecraftServerEntity entity = repository.findByName(name)
                 .orElseThrow(() -> new IllegalArgumentException("Server not found: " + name));
+        MinecraftServer server = mapper.entityToModel(entity);
+        com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
+                .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
 
         try {
-            // 从 K8s 删除
-            com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
-                    .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
-            io.kubernetes.client.openapi.ApiClient client = k8sClientFactory.createClient(cluster.getKubeconfig());
-            k8sExecutor.deleteResources(client, entity.getNamespace(), entity.getName());
+            k8sExecutor.apply(cluster, buildResources(server));
+            log.info("Server recreated: {}", server.getFullName());
+        } catch (Exception e) {
+            markStatus(entity, ServerLifecycle.ERROR);
+            throw new RuntimeException("Failed to recreate server in K8s", e);
+        }
+    }
 
-            // 从数据库删除
-            repository.delete(entity);
+    /**
+     * 滚动重启服务器 Pod，配置和数据不变（状态由 RolloutTracker 随 Pod 事件更新）
+     */
+    public void restartServer(String name) {
+        MinecraftServerEntity entity = repository.findByName(name)
+                .orElseThrow(() -> new IllegalArgumentException("Server not found: " + name));
+        com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
+                .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
+
+        try {
+            k8sExecutor.restartStatefulSet(cluster, entity.getNamespace(), entity.getName());
+            log.info("Server restarted: {}", name);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to restart server in K8s", e);
+        }
+    }
+
+    /**
+     * 删除服务器
+     *
+     * @param fast true 时只删除 Namespace（集群后台级联删除其中所有资源）并立即返回，
+     *             记录标记为 DELETING，等 Namespace 真正消失后由 DeletionTracker 删除；
+     *             false 时逐个删除资源后再删除记录
+     */
+    public void deleteServer(String name, boolean fast) {
+        MinecraftServerEntity entity = repository.findByName(name)
+                .orElseThrow(() -> new IllegalArgumentException("Server not found: " + name));
+        com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
+                .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
+
+        if (!fast) {
+            try {
+                // 从 K8s 删除
+                k8sExecutor.deleteResources(cluster, entity.getNamespace(), entity.getName());
+
+                // 从数据库删除
+                repository.delete(entity);
+
+                log.info("Server deleted: {}", name);
+                return;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to delete server", e);
+            }
+        }
 
-            log.info("Server deleted: {}", name);
+        markStatus(entity, ServerLifecycle.DELETING);
+        try {
+            if (!k8sExecutor.deleteNamespace(cluster, entity.getNamespace())) {
+                // Namespace 已不存在，直接删除记录
+                repository.delete(entity);
+                log.info("Server deleted: {}", name);
+                return;
+            }
+            log.info("Server deletion started: {}", name);
         } catch (Exception e) {
+            markStatus(entity, ServerLifecycle.ERROR);
             throw new RuntimeException("Failed to delete server", e);
         }
     }
 
+    /**
+     * 只写入状态列（实体来自事务外的查询，save() 会用其中的旧值覆盖其他列）
+     */
+    private void markStatus(MinecraftServerEntity entity, ServerLifecycle status) {
+        entity.setStatus(status.name());
+        repository.updateStatusById(entity.getId(), status.name(), LocalDateTime.now());
+    }
+
     public MinecraftServer getServer(String name) {
         MinecraftServerEntity entity = repository.findByName(name)
                 .orElseThrow(() -> new IllegalArgumentException("Server not found: " + name));
@@ -193,40 +243,36 @@ public class MinecraftServerService {
         K8sConfig k8sConfig = entity.getK8sConfigObject();
         MinecraftConfig minecraftConfig = entity.getMinecraftConfigObject();
 
-        // 更新 K8s 配置
+        // 更新 K8s 配置（只序列化有变更的配置）
         if (request.getK8sConfig() != null) {
             updateK8sConfig(k8sConfig, request.getK8sConfig());
+            entity.setK8sConfigObject(k8sConfig);
         }
 
         // 更新 Minecraft 配置
         if (request.getMinecraftConfig() != null) {
             updateMinecraftConfig(minecraftConfig, request.getMinecraftConfig(), k8sConfig.getMemoryLimit());
+            entity.setMinecraftConfigObject(minecraftConfig);
         }
 
-        // 保存更新后的配置
-        entity.setK8sConfigObject(k8sConfig);
-        entity.setMinecraftConfigObject(minecraftConfig);
-
         // 转换为领域模型并验证
         MinecraftServer server = mapper.entityToModel(entity);
 
         try {
-            // 生成并应用新的 YAML
-            String yaml = generateYaml(server);
+            // 构建并应用新的资源对象
+            List<Object> resources = buildResources(server);
             com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
                     .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
-            io.kubernetes.client.openapi.ApiClient client = k8sClientFactory.createClient(cluster.getKubeconfig());
-            k8sExecutor.applyYaml(client, yaml);
+            k8sExecutor.apply(cluster, resources);
 
-            // 更新数据库
-            entity.setStatus("RUNNING");
-            repository.save(entity);
+            // 只写入配置列，状态由 RolloutTracker 维护
+            repository.updateConfig(entity.getId(), entity.getK8sConfig(), entity.getMinecraftConfig(),
+                    LocalDateTime.now());
 
             log.info("Server updated in namespace {}: {}", namespace, server.getFullName());
             return server;
         } catch (Exception e) {
-            entity.setStatus("ERROR");
-            repository.save(entity);
+            markStatus(entity, ServerLifecycle.ERROR);
             throw new RuntimeException("Failed to update server in K8s", e);
         }
     }
@@ -240,8 +286,7 @@ public class MinecraftServerService {
             // 从 K8s 删除
             com.minecraft.k8s.domain.entity.ClusterEntity cluster = clusterService.getClusterById(entity.getClusterId())
                     .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + entity.getClusterId()));
-            io.kubernetes.client.openapi.ApiClient client = k8sClientFactory.createClient(cluster.getKubeconfig());
-            k8sExecutor.deleteResources(client, entity.getNamespace(), entity.getName());
+            k8sExecutor.deleteResources(cluster, entity.getNamespace(), entity.getName());
 
             // 从数据库删除
             repository.delete(entity);
@@ -253,113 +298,12 @@ public class MinecraftServerService {
     }
 
     public List<MinecraftServer> listServers() {
-        return repository.findAll().stream()
-                .map(mapper::entityToModel)
-                .collect(Collectors.toList());
-    }
-
-    private String generateYaml(MinecraftServer server) {
-        try {
-            // 读取模板
-            String template = loadTemplate();
-
-            // 转换为 K8s 资源对象
-            K8sResource resource = K8sResource.fromMinecraftServer(server);
-
-            // 替换参数
-            return replaceParams(template, resource);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate YAML", e);
-        }
-    }
-
-    private String loadTemplate() throws IOException {
-        ClassPathResource resource = new ClassPathResource("k8s-template.yaml");
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-            return reader.lines().collect(Collectors.joining("\n"));
-        }
+        return mapper.entitiesToModels(repository.findAll());
     }
 
-    private String replaceParams(String template, K8sResource resource) {
-        // 计算初始内存 (最大内存的 50%)
-        String initMemory = calculateInitMemory(resource.getMaxMemory());
-
-        String result = template
-                .replace("${namespace}", resource.getNamespace())
-                .replace("${name}", resource.getName())
-                .replace("${replicas}", String.valueOf(resource.getReplicas()))
-                .replace("${nodePort}", String.valueOf(resource.getNodePort()))
-                .replace("${serverType}", resource.getServerType())
-                .replace("${onlineMode}", String.valueOf(resource.getOnlineMode()).toUpperCase())
-                .replace("${maxPlayers}", String.valueOf(resource.getMaxPlayers()))
-                .replace("${initMemory}", initMemory)
-                .replace("${maxMemory}", resource.getMaxMemory())
-                .replace("${memoryLimit}", resource.getMemoryLimit())
-                .replace("${memoryRequest}", resource.getMemoryRequest())
-                .replace("${cpuLimit}", resource.getCpuLimit())
-                .replace("${cpuRequest}", resource.getCpuRequest())
-                .replace("${storageSize}", resource.getStorageSize())
-                .replace("${storageClassName}", resource.getStorageClassName())
-                .replace("${jvmOptions}", resource.getJvmOptions())
-                .replace("${version}", resource.getVersion() != null ? resource.getVersion() : "latest");
-        
-        // Modrinth 模组列表（普通服务器 + Mods 模式）
-        // 将换行符替换为逗号，确保 YAML 格式正确
-        String modrinthProjects = "";
-        if (resource.getModrinthProjects() != null && !resource.getModrinthProjects().isEmpty()) {
-            modrinthProjects = resource.getModrinthProjects()
-                    .replace("\r\n", ",")
-                    .replace("\n", ",")
-                    .replace("\r", ",")
-                    .replaceAll(",+", ",")  // 多个逗号合并为一个
-                    .replaceAll("^,|,$", "");  // 去除首尾逗号
-        }
-        result = result.replace("${modrinthProjects}", modrinthProjects);
-        
-        // Modrinth 整合包配置（整合包模式）
-        String modpackPlatform = (resource.getModrinthModpack() != null && !resource.getModrinthModpack().isEmpty()) 
-                ? "MODRINTH" : "";
-        result = result.replace("${modpackPlatform}", modpackPlatform);
-        result = result.replace("${modrinthModpack}", 
-                resource.getModrinthModpack() != null ? resource.getModrinthModpack() : "");
-        
-        // 世界边界配置（用于 Chunky 预生成和 ChunkyBorder）
-        result = result.replace("${worldBorderSize}", 
-                resource.getWorldBorderSize() != null ? String.valueOf(resource.getWorldBorderSize()) : "0");
-        result = result.replace("${rconStartupCommands}", 
-                resource.getRconStartupCommands() != null ? resource.getRconStartupCommands() : "");
-        
-        return result;
-    }
-
-    /**
-     * 计算初始内存 (最大内存的 75%)
-     * 对于 Minecraft 服务器，建议初始内存接近最大内存，减少启动时的 GC 压力
-     * 例如: "3072M" -> "2304M", "2048M" -> "1536M"
-     */
-    private String calculateInitMemory(String maxMemory) {
-        if (maxMemory == null || maxMemory.isEmpty()) {
-            return "512M"; // 默认值
-        }
-
-        try {
-            // 提取数字和单位
-            String numStr = maxMemory.replaceAll("[^0-9]", "");
-            String unit = maxMemory.replaceAll("[0-9]", "");
-
-            if (numStr.isEmpty()) {
-                return "512M";
-            }
-
-            int maxValue = Integer.parseInt(numStr);
-            int initValue = (int) (maxValue * 0.75); // 75%
-
-            return initValue + unit;
-        } catch (Exception e) {
-            log.warn("Failed to calculate init memory from: {}, using default", maxMemory);
-            return "512M";
-        }
+    private List<Object> buildResources(MinecraftServer server) {
+        // 转换为 K8s 资源对象
+        return resourceBuilder.build(K8sResource.fromMinecraftServer(server));
     }
 
     private K8sConfig buildK8sConfig(CreateServerRequest.CreateK8sConfigDTO dto) {
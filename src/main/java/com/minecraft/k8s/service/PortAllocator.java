@@ -1,90 +1,267 @@
 package com.minecraft.k8s.service;
 
-import io.kubernetes.client.openapi.ApiClient;
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import com.minecraft.k8s.repository.ClusterRepository;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.models.V1Namespace;
-import io.kubernetes.client.openapi.models.V1NamespaceList;
-import io.kubernetes.client.util.generic.GenericKubernetesApi;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * 端口分配器 - 自动分配可用端口
+ *
+ * 每个集群维护一张端口位图（每个 long 表示 64 个端口），首次分配时从 K8s 和数据库播种一次，
+ * 之后分配只在内存中扫描位图并用 CAS 置位，不再访问 API Server，也不持有全局锁。
+ * 后台定期对账：以集群实际占用和数据库记录为准重建位图，释放已删除服务器的端口
+ *
+ * 数据库中 nodePort 全局唯一，因此正在创建中的端口记录在全局预留表中，
+ * 不同集群不会同时分配到同一个端口；预留在宽限期内不会被对账清除
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PortAllocator {
 
+    // 新分配的端口在此时间内视为已占用（等待数据库记录和 K8s Service 出现）
+    private static final long RESERVATION_GRACE_MILLIS = 60_000;
+
+    private final K8sCommandExecutor k8sExecutor;
+    private final ClusterInformerManager informerManager;
+    private final ClusterRepository clusterRepository;
+    private final MinecraftServerRepository serverRepository;
+
     @Value("${minecraft.port.start:31001}")
     private Integer startPort;
 
     @Value("${minecraft.port.end:32000}")
     private Integer endPort;
 
-    public synchronized Integer allocatePort(ApiClient apiClient) {
-        try {
-            // 使用 GenericKubernetesApi 避免 CoreV1Api 方法签名版本差异问题
-            GenericKubernetesApi<V1Namespace, V1NamespaceList> namespaceApi = new GenericKubernetesApi<>(
-                    V1Namespace.class,
-                    V1NamespaceList.class,
-                    "",
-                    "v1",
-                    "namespaces",
-                    apiClient);
-
-            V1NamespaceList list = namespaceApi.list().getObject();
-
-            Set<Integer> usedPorts = new HashSet<>();
-            int maxPort = startPort - 1;
-
-            if (list != null && list.getItems() != null) {
-                for (V1Namespace ns : list.getItems()) {
-                    String name = ns.getMetadata().getName();
-                    if (name != null && name.startsWith("minecraft")) {
-                        try {
-                            int port = Integer.parseInt(name.substring("minecraft".length()));
-                            if (port >= startPort && port <= endPort) {
-                                usedPorts.add(port);
-                                maxPort = Math.max(maxPort, port);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略不符合命名规则的 Namespace
-                        }
+    /**
+     * 每个集群的端口位图：key = 集群 ID
+     */
+    private final Map<Long, PortPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 创建中的端口（所有集群共享）：key = 端口, value = 预留时间
+     */
+    private final Map<Integer, Long> reservations = new ConcurrentHashMap<>();
+
+    public Integer allocatePort(ClusterEntity cluster) {
+        PortPool pool = poolFor(cluster);
+        long now = System.currentTimeMillis();
+
+        // 从上次分配的位置开始扫描，已满的字直接跳过
+        int words = pool.used.length();
+        int first = pool.hint.get();
+        for (int i = 0; i < words; i++) {
+            int word = (first + i) % words;
+            long free = ~pool.used.get(word) & pool.validMask(word);
+            while (free != 0) {
+                int bit = Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+                int port = startPort + word * Long.SIZE + bit;
+
+                // 预留表是跨集群的占用凭证，其他集群正在创建的端口直接跳过
+                if (reservations.putIfAbsent(port, now) != null) {
+                    continue;
+                }
+                if (pool.trySet(word, bit)) {
+                    pool.hint.set(word);
+                    log.info("Allocated port {} for cluster {}", port, cluster.getId());
+                    return port;
+                }
+                // 该端口刚被对账标记为占用
+                reservations.remove(port);
+            }
+        }
+        throw new RuntimeException("No available ports in range " + startPort + "-" + endPort);
+    }
+
+    public String generateNamespace(Integer nodePort) {
+        // 生成命名空间：minecraft{端口号}
+        String namespace = "minecraft" + nodePort;
+        log.info("Generated namespace: {}", namespace);
+        return namespace;
+    }
+
+    /**
+     * 定期与集群和数据库对账
+     */
+    @Scheduled(fixedDelayString = "${minecraft.port.reconcile-millis:60000}",
+            initialDelayString = "${minecraft.port.reconcile-millis:60000}")
+    public void reconcileAll() {
+        long now = System.currentTimeMillis();
+        reservations.values().removeIf(reservedAt -> now - reservedAt > RESERVATION_GRACE_MILLIS);
+
+        for (Map.Entry<Long, PortPool> entry : pools.entrySet()) {
+            PortPool pool = entry.getValue();
+            if (!pool.seeded) {
+                continue;
+            }
+            try {
+                clusterRepository.findById(entry.getKey())
+                        .ifPresent(cluster -> reconcile(cluster, pool));
+            } catch (Exception e) {
+                // 保留现有位图，下个周期重试
+                log.warn("Failed to reconcile ports for cluster {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        // kubeconfig 可能已指向其他集群，下次分配时重新播种
+        pools.remove(event.clusterId());
+    }
+
+    private PortPool poolFor(ClusterEntity cluster) {
+        PortPool pool = pools.computeIfAbsent(cluster.getId(), id -> new PortPool(endPort - startPort + 1));
+        if (!pool.seeded) {
+            // 只阻塞同一集群的首次分配
+            synchronized (pool) {
+                if (!pool.seeded) {
+                    try {
+                        reconcile(cluster, pool);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to allocate port from K8s", e);
                     }
+                    pool.seeded = true;
                 }
             }
+        }
+        return pool;
+    }
 
-            // 尝试分配下一个端口
-            int nextPort = maxPort + 1;
+    /**
+     * 以集群实际占用 + 数据库记录 + 宽限期内的预留为准更新位图
+     */
+    private void reconcile(ClusterEntity cluster, PortPool pool) {
+        long[] actual = new long[pool.used.length()];
+        // 以 Namespace 为准：Service 早已删除、仍在终止中的 Namespace 同样占用端口（命名空间名包含端口号）
+        // 优先使用 Namespace Informer 的本地缓存，未同步时回退到按标签分页列出
+        Optional<ClusterInformers> informers = informerManager.get(cluster.getId());
+        markNamespacePorts(informers.isPresent()
+                ? informers.get().listNamespaces()
+                : listManagedNamespaces(cluster), actual);
+        // nodePort 在数据库中全局唯一，其他集群已登记的端口同样不可用
+        for (Integer port : serverRepository.findAllNodePorts()) {
+            mark(actual, port);
+        }
 
-            // 如果超出范围，回绕查找空闲端口
-            if (nextPort > endPort) {
-                for (int port = startPort; port <= endPort; port++) {
-                    if (!usedPorts.contains(port)) {
-                        log.info("Allocated port from K8s (gap filling): {}", port);
-                        return port;
+        int released = 0;
+        for (int word = 0; word < actual.length; word++) {
+            while (true) {
+                long current = pool.used.get(word);
+                long next = actual[word];
+                // 已置位但尚未出现在集群和数据库中的端口，仍在预留期内则保留
+                long pending = current & ~next;
+                while (pending != 0) {
+                    int bit = Long.numberOfTrailingZeros(pending);
+                    pending &= pending - 1;
+                    if (reservations.containsKey(startPort + word * Long.SIZE + bit)) {
+                        next |= 1L << bit;
                     }
                 }
-                throw new RuntimeException("No available ports in range " + startPort + "-" + endPort);
+                if (current == next || pool.used.compareAndSet(word, current, next)) {
+                    released += Long.bitCount(current & ~next);
+                    break;
+                }
             }
+        }
+        if (released > 0) {
+            log.info("Released {} ports for cluster {}", released, cluster.getId());
+        }
+    }
 
-            log.info("Allocated port from K8s: {}", nextPort);
-            return nextPort;
+    private List<V1Namespace> listManagedNamespaces(ClusterEntity cluster) {
+        try {
+            return k8sExecutor.listManagedNamespaces(cluster);
+        } catch (ApiException e) {
+            // 列表失败时不能当作没有占用，否则会分配出已被使用的端口
+            throw new RuntimeException("Failed to list namespaces: HTTP " + e.getCode(), e);
+        }
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to allocate port from K8s", e);
+    /**
+     * 从带管理标签的 Namespace（包括正在终止的）中收集已占用的 NodePort
+     * 旧版本创建、尚无标签的 Namespace 对应的端口由数据库记录兜底
+     */
+    private void markNamespacePorts(List<V1Namespace> namespaces, long[] bits) {
+        for (V1Namespace ns : namespaces) {
+            Map<String, String> labels = ns.getMetadata().getLabels();
+            String port = labels != null ? labels.get(ClusterInformers.NODE_PORT_LABEL) : null;
+            if (port == null) {
+                port = ns.getMetadata().getName().replaceFirst("^minecraft", "");
+            }
+            try {
+                mark(bits, Integer.parseInt(port));
+            } catch (NumberFormatException e) {
+                // 忽略不符合命名规则的 Namespace
+            }
         }
     }
 
-    public String generateNamespace(Integer nodePort) {
-        // 生成命名空间：minecraft{端口号}
-        String namespace = "minecraft" + nodePort;
-        log.info("Generated namespace: {}", namespace);
-        return namespace;
+    private void mark(long[] bits, Integer port) {
+        if (port != null && port >= startPort && port <= endPort) {
+            int offset = port - startPort;
+            bits[offset / Long.SIZE] |= 1L << (offset % Long.SIZE);
+        }
+    }
+
+    /**
+     * 单个集群的端口位图
+     */
+    private static final class PortPool {
+
+        private final AtomicLongArray used;
+        private final int size;
+        // 上次成功分配所在的字，下次从这里开始扫描
+        private final AtomicInteger hint = new AtomicInteger();
+        private volatile boolean seeded;
+
+        private PortPool(int size) {
+            this.size = size;
+            this.used = new AtomicLongArray((size + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        /**
+         * 字中属于端口范围的位
+         */
+        long validMask(int word) {
+            int bits = size - word * Long.SIZE;
+            return bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+        }
+
+        /**
+         * 置位，位已被占用时返回 false
+         */
+        boolean trySet(int word, int bit) {
+            long mask = 1L << bit;
+            while (true) {
+                long current = used.get(word);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+                if (used.compareAndSet(word, current, current | mask)) {
+                    return true;
+                }
+            }
+        }
     }
 }
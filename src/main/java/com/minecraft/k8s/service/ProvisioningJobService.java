@@ -0,0 +1,438 @@
+package com.minecraft.k8s.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minecraft.k8s.domain.entity.MinecraftServerEntity;
+import com.minecraft.k8s.domain.entity.ProvisioningJobEntity;
+import com.minecraft.k8s.domain.entity.ProvisioningJobEntity.Status;
+import com.minecraft.k8s.domain.entity.ProvisioningJobEntity.Type;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
+import com.minecraft.k8s.domain.valueobject.ServerLifecycle;
+import com.minecraft.k8s.dto.BulkJobResponse;
+import com.minecraft.k8s.dto.BulkUpdateServerRequest;
+import com.minecraft.k8s.dto.CreateServerRequest;
+import com.minecraft.k8s.dto.UpdateServerRequest;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import com.minecraft.k8s.repository.ProvisioningJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 服务器编排任务服务
+ *
+ * 创建、更新、重建、重启、删除请求先持久化为 PENDING 任务并立即返回任务 ID，
+ * 再交给该集群专属的有界工作线程池执行，不同集群之间互不阻塞。
+ * 同一服务器同时只允许存在一个未完成的任务
+ *
+ * 批量请求逐项校验（一次查询），通过的条目一次性写入任务记录后分发，
+ * 被拒绝的条目不影响其余条目，结果中逐项给出任务 ID 或拒绝原因
+ *
+ * 启动时重新派发上次未执行的 PENDING 任务；执行到一半被中断的 RUNNING 任务标记为 FAILED
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProvisioningJobService {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ProvisioningJobRepository jobRepository;
+    private final MinecraftServerRepository serverRepository;
+    private final MinecraftServerService serverService;
+    private final ClusterService clusterService;
+
+    @Value("${minecraft.provisioning.workers-per-cluster:4}")
+    private int workersPerCluster;
+
+    /**
+     * 每个集群的工作线程池：key = 集群 ID
+     */
+    private final Map<Long, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    /**
+     * 存在未完成任务的服务器名称
+     */
+    private final Set<String> activeServers = ConcurrentHashMap.newKeySet();
+
+    public ProvisioningJobEntity submitCreate(CreateServerRequest request) {
+        // 提前做廉价的校验，让明显错误的请求直接返回 400
+        if (serverRepository.findByName(request.getName()).isPresent()) {
+            throw new IllegalArgumentException("Server name already exists: " + request.getName());
+        }
+        clusterService.getClusterById(request.getClusterId())
+                .orElseThrow(() -> new IllegalArgumentException("Cluster not found: " + request.getClusterId()));
+        return submit(Type.CREATE, request.getClusterId(), request.getName(), toJson(request));
+    }
+
+    public ProvisioningJobEntity submitUpdate(String name, UpdateServerRequest request) {
+        MinecraftServerEntity server = findSubmittable(name);
+        return submit(Type.UPDATE, server.getClusterId(), name, toJson(request));
+    }
+
+    public ProvisioningJobEntity submitRecreate(String name) {
+        MinecraftServerEntity server = findSubmittable(name);
+        return submit(Type.RECREATE, server.getClusterId(), name, null);
+    }
+
+    public ProvisioningJobEntity submitRestart(String name) {
+        MinecraftServerEntity server = findSubmittable(name);
+        return submit(Type.RESTART, server.getClusterId(), name, null);
+    }
+
+    public ProvisioningJobEntity submitDelete(String name, boolean fast) {
+        MinecraftServerEntity server = findSubmittable(name);
+        return submit(Type.DELETE, server.getClusterId(), name, toJson(new DeleteOptions(fast)));
+    }
+
+    public BulkJobResponse submitCreateAll(List<CreateServerRequest> requests) {
+        Map<String, MinecraftServerEntity> existing = findServers(
+                requests.stream().map(CreateServerRequest::getName).toList());
+        Map<Long, Boolean> clusters = new HashMap<>();
+
+        List<BulkEntry> entries = new ArrayList<>();
+        for (CreateServerRequest request : requests) {
+            String error = null;
+            if (existing.containsKey(request.getName())) {
+                error = "Server name already exists: " + request.getName();
+            } else if (!clusters.computeIfAbsent(request.getClusterId(),
+                    id -> clusterService.getClusterById(id).isPresent())) {
+                error = "Cluster not found: " + request.getClusterId();
+            }
+            entries.add(new BulkEntry(Type.CREATE, request.getClusterId(), request.getName(),
+                    error == null ? toJson(request) : null, error));
+        }
+        return submitAll(entries);
+    }
+
+    public BulkJobResponse submitUpdateAll(List<BulkUpdateServerRequest.Item> items) {
+        Map<String, MinecraftServerEntity> servers = findServers(
+                items.stream().map(BulkUpdateServerRequest.Item::getName).toList());
+
+        List<BulkEntry> entries = new ArrayList<>();
+        for (BulkUpdateServerRequest.Item item : items) {
+            MinecraftServerEntity server = servers.get(item.getName());
+            String error = rejection(item.getName(), server);
+            entries.add(error != null
+                    ? BulkEntry.rejected(Type.UPDATE, item.getName(), error)
+                    : new BulkEntry(Type.UPDATE, server.getClusterId(), item.getName(),
+                            toJson(item.toUpdateRequest()), null));
+        }
+        return submitAll(entries);
+    }
+
+    public BulkJobResponse submitRestartAll(List<String> names) {
+        return submitAllExisting(Type.RESTART, names, null);
+    }
+
+    public BulkJobResponse submitDeleteAll(List<String> names, boolean fast) {
+        return submitAllExisting(Type.DELETE, names, toJson(new DeleteOptions(fast)));
+    }
+
+    public Optional<ProvisioningJobEntity> getJob(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    /**
+     * 批量查询任务状态，用于跟踪批量操作的执行结果
+     */
+    public List<ProvisioningJobEntity> getJobs(Collection<Long> ids) {
+        List<ProvisioningJobEntity> jobs = new ArrayList<>(jobRepository.findAllById(ids));
+        jobs.sort(Comparator.comparing(ProvisioningJobEntity::getId));
+        return jobs;
+    }
+
+    /**
+     * 重新派发上次运行时遗留的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<ProvisioningJobEntity> jobs = jobRepository.findByStatusInOrderByIdAsc(
+                List.of(Status.PENDING, Status.RUNNING));
+        for (ProvisioningJobEntity job : jobs) {
+            if (job.getStatus() == Status.RUNNING) {
+                // 执行到一半被中断，无法确定已完成到哪一步，交由人工确认后重新提交
+                job.setStatus(Status.FAILED);
+                job.setError("Interrupted by application restart");
+                job.setFinishedAt(LocalDateTime.now());
+                jobRepository.save(job);
+                continue;
+            }
+            activeServers.add(job.getServerName());
+            dispatch(job);
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Recovered {} provisioning jobs", jobs.size());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        if (event.type() == ClusterChangedEvent.Type.DELETED) {
+            ExecutorService executor = executors.remove(event.clusterId());
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdown);
+        for (ExecutorService executor : executors.values()) {
+            try {
+                if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        executors.clear();
+    }
+
+    private ProvisioningJobEntity submit(Type type, Long clusterId, String serverName, String payload) {
+        if (!activeServers.add(serverName)) {
+            throw new IllegalStateException("Another job is already in progress for server: " + serverName);
+        }
+
+        ProvisioningJobEntity job = newJob(type, clusterId, serverName, payload);
+        try {
+            job = jobRepository.save(job);
+        } catch (RuntimeException e) {
+            activeServers.remove(serverName);
+            throw e;
+        }
+
+        dispatch(job);
+        log.info("Provisioning job {} submitted: {} {}", job.getId(), type, serverName);
+        return job;
+    }
+
+    /**
+     * 对已存在的服务器批量提交同一类型的任务
+     */
+    private BulkJobResponse submitAllExisting(Type type, List<String> names, String payload) {
+        Map<String, MinecraftServerEntity> servers = findServers(names);
+        List<BulkEntry> entries = new ArrayList<>();
+        for (String name : names) {
+            MinecraftServerEntity server = servers.get(name);
+            String error = rejection(name, server);
+            entries.add(error != null
+                    ? BulkEntry.rejected(type, name, error)
+                    : new BulkEntry(type, server.getClusterId(), name, payload, null));
+        }
+        return submitAll(entries);
+    }
+
+    private BulkJobResponse submitAll(List<BulkEntry> entries) {
+        List<String> errors = new ArrayList<>(entries.size());
+        List<ProvisioningJobEntity> jobs = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (BulkEntry entry : entries) {
+            String error = entry.error();
+            if (error == null && !seen.add(entry.serverName())) {
+                error = "Duplicate server in request: " + entry.serverName();
+            } else if (error == null && !activeServers.add(entry.serverName())) {
+                error = "Another job is already in progress for server: " + entry.serverName();
+            }
+            errors.add(error);
+            if (error == null) {
+                jobs.add(newJob(entry.type(), entry.clusterId(), entry.serverName(), entry.payload()));
+            }
+        }
+
+        // 所有任务记录在一个事务中写入
+        List<ProvisioningJobEntity> saved;
+        try {
+            saved = jobRepository.saveAll(jobs);
+        } catch (RuntimeException e) {
+            jobs.forEach(job -> activeServers.remove(job.getServerName()));
+            throw e;
+        }
+        // 按集群进入各自的工作线程池，同一集群的并发数受 workersPerCluster 限制
+        saved.forEach(this::dispatch);
+
+        List<BulkJobResponse.Item> results = new ArrayList<>(entries.size());
+        Iterator<ProvisioningJobEntity> submitted = saved.iterator();
+        for (int i = 0; i < entries.size(); i++) {
+            String name = entries.get(i).serverName();
+            results.add(errors.get(i) == null
+                    ? new BulkJobResponse.Item(name, submitted.next().getId(), null)
+                    : new BulkJobResponse.Item(name, null, errors.get(i)));
+        }
+        BulkJobResponse response = BulkJobResponse.of(results);
+        log.info("Bulk provisioning submitted: {} job(s), {} rejected", response.submitted(), response.rejected());
+        return response;
+    }
+
+    /**
+     * 查找可以提交任务的服务器：正在删除的服务器 Namespace 已在终止中，不再接受任何任务
+     */
+    private MinecraftServerEntity findSubmittable(String name) {
+        MinecraftServerEntity server = serverRepository.findByName(name)
+                .orElseThrow(() -> new IllegalArgumentException("Server not found: " + name));
+        String error = rejection(name, server);
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+        return server;
+    }
+
+    /**
+     * 批量请求中单个服务器的拒绝原因，可以提交时返回 null
+     */
+    private static String rejection(String name, MinecraftServerEntity server) {
+        if (server == null) {
+            return "Server not found: " + name;
+        }
+        if (ServerLifecycle.DELETING.name().equals(server.getStatus())) {
+            return "Server is being deleted: " + name;
+        }
+        return null;
+    }
+
+    private Map<String, MinecraftServerEntity> findServers(Collection<String> names) {
+        return serverRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(MinecraftServerEntity::getName, Function.identity()));
+    }
+
+    private static ProvisioningJobEntity newJob(Type type, Long clusterId, String serverName, String payload) {
+        ProvisioningJobEntity job = new ProvisioningJobEntity();
+        job.setType(type);
+        job.setClusterId(clusterId);
+        job.setServerName(serverName);
+        job.setPayload(payload);
+        return job;
+    }
+
+    private void dispatch(ProvisioningJobEntity job) {
+        try {
+            executorFor(job.getClusterId()).execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // 正在关闭，任务保持 PENDING，下次启动时恢复
+            activeServers.remove(job.getServerName());
+            log.warn("Provisioning job {} not dispatched: executor is shut down", job.getId());
+        }
+    }
+
+    private ExecutorService executorFor(Long clusterId) {
+        return executors.computeIfAbsent(clusterId, id -> Executors.newFixedThreadPool(workersPerCluster,
+                Thread.ofVirtual().name("provisioning-" + id + "-", 0).factory()));
+    }
+
+    private void run(ProvisioningJobEntity job) {
+        try {
+            job.setStatus(Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+
+            try {
+                execute(job);
+                job.setStatus(Status.SUCCEEDED);
+                log.info("Provisioning job {} succeeded: {} {}", job.getId(), job.getType(), job.getServerName());
+            } catch (Exception e) {
+                job.setStatus(Status.FAILED);
+                job.setError(describe(e));
+                log.error("Provisioning job {} failed: {} {}", job.getId(), job.getType(), job.getServerName(), e);
+            }
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        } catch (Exception e) {
+            log.error("Failed to update provisioning job {}", job.getId(), e);
+        } finally {
+            activeServers.remove(job.getServerName());
+        }
+    }
+
+    private void execute(ProvisioningJobEntity job) {
+        switch (job.getType()) {
+            case CREATE -> serverService.createServer(fromJson(job.getPayload(), CreateServerRequest.class));
+            case UPDATE -> serverService.updateServer(job.getServerName(),
+                    fromJson(job.getPayload(), UpdateServerRequest.class));
+            case RECREATE -> serverService.recreateServer(job.getServerName());
+            case RESTART -> serverService.restartServer(job.getServerName());
+            // 早期的删除任务没有参数，按快速删除处理
+            case DELETE -> serverService.deleteServer(job.getServerName(), job.getPayload() == null
+                    || fromJson(job.getPayload(), DeleteOptions.class).fast());
+        }
+    }
+
+    /**
+     * 拼接异常链上的消息，便于在任务状态中直接看到根因
+     */
+    private static String describe(Throwable e) {
+        StringBuilder message = new StringBuilder();
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (current.getMessage() == null) {
+                continue;
+            }
+            if (!message.isEmpty()) {
+                message.append(": ");
+            }
+            message.append(current.getMessage());
+        }
+        return message.isEmpty() ? e.getClass().getSimpleName() : message.toString();
+    }
+
+    private static String toJson(Object request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize job payload", e);
+        }
+    }
+
+    private static <T> T fromJson(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse job payload", e);
+        }
+    }
+
+    /**
+     * 删除任务参数
+     *
+     * @param fast 是否只删除 Namespace 并由集群后台级联删除
+     */
+    record DeleteOptions(boolean fast) {
+    }
+
+    /**
+     * 批量请求中的一项，error 不为空表示校验未通过
+     */
+    private record BulkEntry(Type type, Long clusterId, String serverName, String payload, String error) {
+
+        static BulkEntry rejected(Type type, String serverName, String error) {
+            return new BulkEntry(type, null, serverName, null, error);
+        }
+    }
+}
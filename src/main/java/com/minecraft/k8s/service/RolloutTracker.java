@@ -0,0 +1,263 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
+import com.minecraft.k8s.domain.valueobject.ServerLifecycle;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformersStartedEvent;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1ContainerState;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 滚动状态跟踪器
+ *
+ * 订阅 StatefulSet 和 Pod Informer 的事件，只把发生变化的命名空间标记为待计算；
+ * 定期根据本地缓存推导每个服务器的生命周期状态（见 ServerLifecycle），
+ * 变化的状态按（集群, 目标状态）合并为一条 UPDATE 批量写入数据库。整个过程不轮询 API Server
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RolloutTracker {
+
+    // 容器等待原因中表示无法自行恢复的错误
+    private static final Set<String> ERROR_REASONS = Set.of(
+            "ErrImagePull", "ImagePullBackOff", "InvalidImageName", "CrashLoopBackOff",
+            "CreateContainerConfigError", "CreateContainerError", "RunContainerError");
+
+    private final ClusterInformerManager informerManager;
+    private final MinecraftServerRepository repository;
+
+    /**
+     * 待重新计算状态的服务器
+     */
+    private final Set<Target> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 最近一次写入数据库的状态
+     */
+    private final Map<Target, ServerLifecycle> current = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onInformersStarted(ClusterInformersStartedEvent event) {
+        ClusterInformers informers = event.informers();
+        Long clusterId = informers.getClusterId();
+        // 新 Informer 的首次同步会为每个资源触发 onAdd，全部重新计算
+        forget(clusterId);
+        informers.statefulSetInformer().addEventHandler(handler(clusterId));
+        informers.podInformer().addEventHandler(handler(clusterId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        if (event.type() == ClusterChangedEvent.Type.DELETED) {
+            forget(event.clusterId());
+        }
+    }
+
+    /**
+     * 忘记已写入的状态并重新计算，用于纠正数据库中被外部修改的状态
+     * （写入时只更新与计算结果不同的行）
+     */
+    public void resync(Long clusterId, Collection<String> namespaces) {
+        for (String namespace : namespaces) {
+            Target target = new Target(clusterId, namespace);
+            current.remove(target);
+            dirty.add(target);
+        }
+    }
+
+    /**
+     * 计算待定服务器的状态并批量写入
+     */
+    @Scheduled(fixedDelayString = "${minecraft.rollout.flush-millis:2000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        // key = 集群 ID, value = 目标状态 -> 命名空间
+        Map<Long, Map<ServerLifecycle, List<String>>> changes = new HashMap<>();
+        int pending = 0;
+        for (Iterator<Target> it = dirty.iterator(); it.hasNext(); ) {
+            Target target = it.next();
+            Optional<ClusterInformers> informers = informerManager.get(target.clusterId());
+            if (informers.isEmpty()) {
+                // Informer 尚未同步，留到下次
+                continue;
+            }
+            it.remove();
+
+            ServerLifecycle status = evaluate(target.namespace(), informers.get());
+            if (status == null || status == current.get(target)) {
+                continue;
+            }
+            pending++;
+            changes.computeIfAbsent(target.clusterId(), id -> new HashMap<>())
+                    .computeIfAbsent(status, s -> new ArrayList<>())
+                    .add(target.namespace());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Map<ServerLifecycle, List<String>>> cluster : changes.entrySet()) {
+            for (Map.Entry<ServerLifecycle, List<String>> change : cluster.getValue().entrySet()) {
+                try {
+                    int updated = repository.updateStatus(cluster.getKey(), change.getValue(),
+                            change.getKey().name(), now);
+                    for (String namespace : change.getValue()) {
+                        current.put(new Target(cluster.getKey(), namespace), change.getKey());
+                    }
+                    if (updated > 0) {
+                        log.info("Cluster {}: {} server(s) -> {}", cluster.getKey(), updated, change.getKey());
+                    }
+                } catch (Exception e) {
+                    // 下次重试
+                    log.error("Failed to update server status to {} in cluster {}",
+                            change.getKey(), cluster.getKey(), e);
+                    for (String namespace : change.getValue()) {
+                        dirty.add(new Target(cluster.getKey(), namespace));
+                    }
+                }
+            }
+        }
+        log.debug("Rollout tracker flushed {} status change(s)", pending);
+    }
+
+    /**
+     * 根据 Informer 缓存推导服务器状态，StatefulSet 不存在时返回 null（不修改状态）
+     */
+    private ServerLifecycle evaluate(String namespace, ClusterInformers informers) {
+        List<V1StatefulSet> statefulSets = informers.listStatefulSets(namespace);
+        if (statefulSets.isEmpty()) {
+            return null;
+        }
+        V1StatefulSet statefulSet = statefulSets.get(0);
+        Integer replicas = statefulSet.getSpec() != null ? statefulSet.getSpec().getReplicas() : null;
+        if (replicas != null && replicas == 0) {
+            return ServerLifecycle.DEGRADED;
+        }
+
+        List<V1Pod> pods = informers.listPods(namespace);
+        ServerLifecycle previous = current.get(new Target(informers.getClusterId(), namespace));
+        boolean wasUp = previous == ServerLifecycle.READY || previous == ServerLifecycle.DEGRADED;
+        if (pods.isEmpty()) {
+            // 滚动更新时 Pod 被删除重建
+            return wasUp || previous == ServerLifecycle.STARTING
+                    ? ServerLifecycle.STARTING
+                    : ServerLifecycle.CREATING;
+        }
+
+        V1Pod pod = pods.get(0);
+        if (pod.getStatus() == null) {
+            return ServerLifecycle.CREATING;
+        }
+        if ("Failed".equals(pod.getStatus().getPhase())) {
+            return ServerLifecycle.ERROR;
+        }
+        List<V1ContainerStatus> containers = pod.getStatus().getContainerStatuses();
+        if (containers == null || containers.isEmpty()) {
+            // 尚未调度或正在初始化
+            return ServerLifecycle.CREATING;
+        }
+
+        V1ContainerStatus container = containers.get(0);
+        V1ContainerState state = container.getState();
+        if (state != null && state.getWaiting() != null) {
+            String reason = state.getWaiting().getReason();
+            if (reason != null && ERROR_REASONS.contains(reason)) {
+                return ServerLifecycle.ERROR;
+            }
+            // ContainerCreating / PodInitializing：imagePullPolicy 为 Always，此阶段主要是拉取镜像
+            return ServerLifecycle.PULLING;
+        }
+        if (state != null && state.getTerminated() != null) {
+            return ServerLifecycle.DEGRADED;
+        }
+
+        if (Boolean.TRUE.equals(container.getReady())) {
+            return rolloutComplete(statefulSet) ? ServerLifecycle.READY : ServerLifecycle.STARTING;
+        }
+        // 运行中但未就绪：曾经就绪或发生过重启视为降级，否则仍在启动
+        boolean restarted = container.getRestartCount() != null && container.getRestartCount() > 0;
+        return wasUp || restarted ? ServerLifecycle.DEGRADED : ServerLifecycle.STARTING;
+    }
+
+    /**
+     * StatefulSet 的当前版本是否已全部就绪
+     */
+    static boolean rolloutComplete(V1StatefulSet statefulSet) {
+        V1StatefulSetStatus status = statefulSet.getStatus();
+        if (status == null) {
+            return false;
+        }
+        Long generation = statefulSet.getMetadata().getGeneration();
+        if (generation != null && (status.getObservedGeneration() == null
+                || status.getObservedGeneration() < generation)) {
+            return false;
+        }
+        if (status.getUpdateRevision() != null
+                && !Objects.equals(status.getUpdateRevision(), status.getCurrentRevision())) {
+            return false;
+        }
+        int replicas = statefulSet.getSpec().getReplicas() != null ? statefulSet.getSpec().getReplicas() : 1;
+        return status.getReadyReplicas() != null && status.getReadyReplicas() >= replicas;
+    }
+
+    private <T extends KubernetesObject> ResourceEventHandler<T> handler(Long clusterId) {
+        return new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(T obj) {
+                mark(clusterId, obj);
+            }
+
+            @Override
+            public void onUpdate(T oldObj, T newObj) {
+                mark(clusterId, newObj);
+            }
+
+            @Override
+            public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+                mark(clusterId, obj);
+            }
+        };
+    }
+
+    private void mark(Long clusterId, KubernetesObject object) {
+        if (object != null && object.getMetadata() != null && object.getMetadata().getNamespace() != null) {
+            dirty.add(new Target(clusterId, object.getMetadata().getNamespace()));
+        }
+    }
+
+    private void forget(Long clusterId) {
+        dirty.removeIf(target -> target.clusterId().equals(clusterId));
+        current.keySet().removeIf(target -> target.clusterId().equals(clusterId));
+    }
+
+    private record Target(Long clusterId, String namespace) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.entity.MinecraftServerEntity;
+import com.minecraft.k8s.domain.event.ClusterChangedEvent;
+import com.minecraft.k8s.domain.valueobject.ServerLifecycle;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据库与集群的状态对账
+ *
+ * 每个周期只处理一个集群（距上次对账最久、且已超过最小间隔的集群），
+ * 每个集群最多一次分页列表请求（Informer 已同步时不产生请求），不会对 API Server 造成压力：
+ * - 集群中存在的服务器交给 RolloutTracker 重新计算状态，纠正被外部修改的状态
+ * - 集群中找不到 StatefulSet 的服务器标记为 MISSING，可通过 /api/servers/{name}/recreate 重建
+ * - 数据库中没有记录的 Minecraft 命名空间记为孤立命名空间，只记录不删除；
+ *   旧版本创建的命名空间没有管理标签，标签迁移完成前每次对账额外按名称前缀分页列出一次
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServerReconciler {
+
+    // 刚创建的服务器在此时间内可能还没有 StatefulSet
+    private static final Duration CREATE_GRACE = Duration.ofMinutes(5);
+    // 旧版本创建的命名空间名称前缀（minecraft + 端口号）
+    private static final String LEGACY_NAMESPACE_PREFIX = "minecraft";
+
+    private final ClusterService clusterService;
+    private final MinecraftServerRepository repository;
+    private final ClusterInformerManager informerManager;
+    private final K8sCommandExecutor k8sExecutor;
+    private final RolloutTracker rolloutTracker;
+
+    @Value("${minecraft.reconcile.min-interval-millis:300000}")
+    private long minIntervalMillis;
+
+    /**
+     * 上次对账时间：key = 集群 ID
+     */
+    private final Map<Long, Long> lastReconciled = new ConcurrentHashMap<>();
+
+    /**
+     * 孤立的命名空间：key = 集群 ID
+     */
+    private final Map<Long, List<String>> orphans = new ConcurrentHashMap<>();
+
+    /**
+     * 已不存在无标签旧命名空间的集群，不再额外列出
+     */
+    private final Set<Long> legacyMigrated = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${minecraft.reconcile.tick-millis:10000}",
+            initialDelayString = "${minecraft.reconcile.tick-millis:10000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        clusterService.getAllClusters().stream()
+                .filter(cluster -> now - lastReconciled.getOrDefault(cluster.getId(), 0L) >= minIntervalMillis)
+                .min(Comparator.comparingLong(cluster -> lastReconciled.getOrDefault(cluster.getId(), 0L)))
+                .ifPresent(cluster -> {
+                    lastReconciled.put(cluster.getId(), now);
+                    try {
+                        reconcile(cluster);
+                    } catch (Exception e) {
+                        log.warn("Failed to reconcile cluster {}: {}", cluster.getId(), e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * 获取集群中的孤立命名空间（最近一次对账的结果）
+     */
+    public List<String> getOrphans(Long clusterId) {
+        return orphans.getOrDefault(clusterId, List.of());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onClusterChanged(ClusterChangedEvent event) {
+        lastReconciled.remove(event.clusterId());
+        orphans.remove(event.clusterId());
+        legacyMigrated.remove(event.clusterId());
+    }
+
+    private void reconcile(ClusterEntity cluster) throws ApiException {
+        // 1. 集群中实际存在的资源：优先读 Informer 缓存，否则各一次分页列表
+        Optional<ClusterInformers> informers = informerManager.get(cluster.getId());
+        List<V1StatefulSet> statefulSets = informers.isPresent()
+                ? informers.get().listStatefulSets()
+                : k8sExecutor.listStatefulSets(cluster);
+        List<V1Namespace> namespaces = new ArrayList<>(informers.isPresent()
+                ? informers.get().listNamespaces()
+                : k8sExecutor.listManagedNamespaces(cluster));
+        if (!legacyMigrated.contains(cluster.getId())) {
+            List<V1Namespace> legacy = k8sExecutor.listUnlabelledNamespaces(cluster, LEGACY_NAMESPACE_PREFIX);
+            if (legacy.isEmpty()) {
+                legacyMigrated.add(cluster.getId());
+            }
+            namespaces.addAll(legacy);
+        }
+
+        Map<String, V1StatefulSet> live = new HashMap<>();
+        for (V1StatefulSet statefulSet : statefulSets) {
+            live.put(statefulSet.getMetadata().getNamespace(), statefulSet);
+        }
+
+        // 2. 与数据库逐条比对
+        List<MinecraftServerEntity> servers = repository.findByClusterId(cluster.getId());
+        LocalDateTime graceStart = LocalDateTime.now().minus(CREATE_GRACE);
+        Set<String> known = new HashSet<>();
+        List<String> present = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        Map<ServerLifecycle, List<String>> derived = new EnumMap<>(ServerLifecycle.class);
+        for (MinecraftServerEntity server : servers) {
+            String namespace = server.getNamespace();
+            known.add(namespace);
+            V1StatefulSet statefulSet = live.get(namespace);
+            if (statefulSet == null) {
+                boolean creating = server.getCreatedAt() != null && server.getCreatedAt().isAfter(graceStart);
+                if (!creating && !ServerLifecycle.MISSING.name().equals(server.getStatus())) {
+                    missing.add(namespace);
+                }
+            } else if (informers.isPresent()) {
+                present.add(namespace);
+            } else {
+                // 没有 Pod 缓存，只能根据 StatefulSet 的就绪副本数粗略判断
+                ServerLifecycle status = null;
+                if (RolloutTracker.rolloutComplete(statefulSet)) {
+                    status = ServerLifecycle.READY;
+                } else if (ServerLifecycle.READY.name().equals(server.getStatus())) {
+                    status = ServerLifecycle.DEGRADED;
+                }
+                if (status != null && !status.name().equals(server.getStatus())) {
+                    derived.computeIfAbsent(status, s -> new ArrayList<>()).add(namespace);
+                }
+            }
+        }
+
+        // 3. 写入（每个目标状态一条 UPDATE）
+        LocalDateTime now = LocalDateTime.now();
+        if (!missing.isEmpty()) {
+            repository.updateStatus(cluster.getId(), missing, ServerLifecycle.MISSING.name(), now);
+            log.warn("Cluster {}: {} server(s) missing in K8s: {}", cluster.getId(), missing.size(), missing);
+            // 重建后重新从 Pod 事件推导状态
+            rolloutTracker.resync(cluster.getId(), missing);
+        }
+        derived.forEach((status, group) -> repository.updateStatus(cluster.getId(), group, status.name(), now));
+        rolloutTracker.resync(cluster.getId(), present);
+
+        // 4. 孤立命名空间
+        List<String> orphaned = namespaces.stream()
+                .filter(ns -> ns.getMetadata().getDeletionTimestamp() == null)
+                .map(ns -> ns.getMetadata().getName())
+                .filter(name -> !known.contains(name))
+                .sorted()
+                .toList();
+        List<String> previous = orphans.put(cluster.getId(), orphaned);
+        if (!orphaned.isEmpty() && !orphaned.equals(previous)) {
+            log.warn("Cluster {}: orphaned namespaces without a server record: {}", cluster.getId(), orphaned);
+        }
+
+        log.debug("Cluster {} reconciled: {} server(s), {} live, {} missing, {} orphaned",
+                cluster.getId(), servers.size(), live.size(), missing.size(), orphaned.size());
+    }
+}
@@ -0,0 +1,102 @@
+package com.minecraft.k8s.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的 YAML 模板
+ *
+ * 模板在启动时解析一次，拆分为文本片段和 ${参数} 占位符组成的片段列表；
+ * 渲染时按顺序一次性写入预估容量的 StringBuilder，不再对整份文档反复 replace。
+ * 模板中出现未声明的参数或未闭合的占位符时，编译阶段直接失败
+ */
+final class YamlTemplate {
+
+    private static final String PLACEHOLDER_START = "${";
+    private static final char PLACEHOLDER_END = '}';
+    // 每个参数值的预估长度，用于预分配输出容量
+    private static final int ESTIMATED_VALUE_LENGTH = 16;
+
+    private final List<Segment> segments;
+    private final int estimatedLength;
+
+    private YamlTemplate(List<Segment> segments, int estimatedLength) {
+        this.segments = segments;
+        this.estimatedLength = estimatedLength;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param source     模板内容
+     * @param parameters 允许出现的参数名
+     * @throws IllegalStateException 模板包含未声明的参数或格式错误
+     */
+    static YamlTemplate compile(String source, Collection<String> parameters) {
+        Set<String> allowed = Set.copyOf(parameters);
+        List<Segment> segments = new ArrayList<>();
+        int estimatedLength = 0;
+
+        int position = 0;
+        while (position < source.length()) {
+            int start = source.indexOf(PLACEHOLDER_START, position);
+            if (start < 0) {
+                break;
+            }
+            int end = source.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                throw new IllegalStateException("Unterminated placeholder at offset " + start);
+            }
+            String name = source.substring(start + PLACEHOLDER_START.length(), end);
+            if (!allowed.contains(name)) {
+                throw new IllegalStateException("Unknown template placeholder: ${" + name + "}");
+            }
+
+            if (start > position) {
+                segments.add(new Segment(source.substring(position, start), false));
+                estimatedLength += start - position;
+            }
+            segments.add(new Segment(name, true));
+            estimatedLength += ESTIMATED_VALUE_LENGTH;
+            position = end + 1;
+        }
+        if (position < source.length()) {
+            segments.add(new Segment(source.substring(position), false));
+            estimatedLength += source.length() - position;
+        }
+
+        return new YamlTemplate(List.copyOf(segments), estimatedLength);
+    }
+
+    /**
+     * 单次遍历渲染模板
+     *
+     * @param values 参数值
+     * @throws IllegalArgumentException 缺少模板中使用的参数值
+     */
+    String render(Map<String, String> values) {
+        StringBuilder result = new StringBuilder(estimatedLength);
+        for (Segment segment : segments) {
+            if (!segment.parameter()) {
+                result.append(segment.text());
+                continue;
+            }
+            String value = values.get(segment.text());
+            if (value == null) {
+                throw new IllegalArgumentException("Missing template value: " + segment.text());
+            }
+            result.append(value);
+        }
+        return result.toString();
+    }
+
+    /**
+     * @param text      文本内容，或参数名
+     * @param parameter 是否为参数占位符
+     */
+    private record Segment(String text, boolean parameter) {
+    }
+}
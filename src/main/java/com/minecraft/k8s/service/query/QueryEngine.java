@@ -0,0 +1,328 @@
+package com.minecraft.k8s.service.query;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Minecraft Query 协议（UDP）多路复用引擎
+ *
+ * 所有查询共用一个非阻塞 DatagramChannel，由单个 I/O 线程通过 Selector 驱动：
+ * - 握手和状态响应通过 session id 关联到对应请求
+ * - 每个请求的超时由时间轮管理
+ * - challenge token 按服务器地址缓存，有效期内直接发送状态请求，只需一次往返
+ * - 完整状态响应直接在接收缓冲区上解析，一次往返即可得到 MOTD、版本、插件和玩家列表
+ * 因此成千上万个并发查询既不需要独立 Socket，也不需要独立线程
+ */
+@Slf4j
+@Component
+public class QueryEngine {
+
+    static final int TIMEOUT_MS = 3000;
+    private static final byte HANDSHAKE_TYPE = 9;
+    private static final byte STAT_TYPE = 0;
+    private static final int SESSION_ID_MASK = 0x0F0F0F0F;
+    private static final long TICK_MILLIS = 50;
+    private static final int WHEEL_SLOTS = 128;
+    private static final int MAX_DATAGRAM_SIZE = 65535;
+    // Minecraft 的 challenge token 约 30 秒失效，留出余量
+    private static final long TOKEN_TTL_MS = 25_000;
+    // 使用缓存 token 的状态请求等待时间；token 被拒绝时服务器不会回包，需尽快回退到握手
+    private static final long CACHED_TOKEN_TIMEOUT_MS = 1000;
+
+    private final Queue<PendingQuery> submissions = new ConcurrentLinkedQueue<>();
+
+    // 以下字段只在 I/O 线程中访问
+    private final Map<Integer, PendingQuery> pending = new HashMap<>();
+    private final Map<InetSocketAddress, ChallengeToken> tokens = new HashMap<>();
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE).order(ByteOrder.BIG_ENDIAN);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(64).order(ByteOrder.BIG_ENDIAN);
+    private final StatResponseParser statParser = new StatResponseParser();
+    private TimerWheel<PendingQuery> timerWheel;
+    private int nextSessionId;
+    private long lastTokenSweep;
+
+    private Selector selector;
+    private DatagramChannel channel;
+    private Thread ioThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        selector = Selector.open();
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(null);
+        channel.register(selector, SelectionKey.OP_READ);
+        timerWheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SLOTS, System.currentTimeMillis());
+
+        running = true;
+        ioThread = new Thread(this::runLoop, "minecraft-query-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+        log.info("Minecraft query engine listening on {}", channel.getLocalAddress());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join(TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        selector.close();
+    }
+
+    /**
+     * 查询服务器完整状态
+     *
+     * @param address 已解析的服务器地址
+     * @return 服务器状态，超时或失败时结果为 null
+     */
+    public CompletableFuture<ServerStatus> queryStatus(InetSocketAddress address) {
+        PendingQuery query = new PendingQuery(address);
+        if (address.isUnresolved()) {
+            log.warn("❌ Query failed - Could not resolve {}", address);
+            query.future.complete(null);
+            return query.future;
+        }
+        submissions.add(query);
+        selector.wakeup();
+        return query.future;
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                selector.select(TICK_MILLIS);
+                selector.selectedKeys().clear();
+                receiveAll();
+                drainSubmissions();
+                long now = System.currentTimeMillis();
+                timerWheel.advance(now, this::onDeadline);
+                sweepTokens(now);
+            } catch (Exception e) {
+                log.error("Minecraft query engine loop error", e);
+            }
+        }
+        pending.values().forEach(query -> query.future.complete(null));
+        pending.clear();
+    }
+
+    private void drainSubmissions() {
+        PendingQuery query;
+        while ((query = submissions.poll()) != null) {
+            query.sessionId = allocateSessionId();
+            pending.put(query.sessionId, query);
+
+            ChallengeToken token = tokens.get(query.address);
+            if (token != null && !token.isExpired(System.currentTimeMillis())) {
+                sendStat(query, token.value(), true);
+            } else {
+                sendHandshake(query);
+            }
+        }
+    }
+
+    private void sweepTokens(long now) {
+        if (now - lastTokenSweep < TOKEN_TTL_MS) {
+            return;
+        }
+        tokens.values().removeIf(token -> token.isExpired(now));
+        lastTokenSweep = now;
+    }
+
+    private int allocateSessionId() {
+        int sessionId;
+        do {
+            sessionId = (++nextSessionId) & SESSION_ID_MASK;
+        } while (sessionId == 0 || pending.containsKey(sessionId));
+        return sessionId;
+    }
+
+    private void sendHandshake(PendingQuery query) {
+        sendBuffer.clear();
+        sendBuffer.putShort((short) 0xFEFD); // Magic
+        sendBuffer.put(HANDSHAKE_TYPE); // Type
+        sendBuffer.putInt(query.sessionId); // Session ID
+        query.phase = Phase.HANDSHAKE;
+        query.usingCachedToken = false;
+        send(query, TIMEOUT_MS);
+    }
+
+    private void sendStat(PendingQuery query, int challengeToken, boolean cached) {
+        sendBuffer.clear();
+        sendBuffer.putShort((short) 0xFEFD); // Magic
+        sendBuffer.put(STAT_TYPE); // Type
+        sendBuffer.putInt(query.sessionId); // Session ID
+        sendBuffer.putInt(challengeToken); // Challenge token
+        sendBuffer.putInt(0); // Padding for full stat
+        query.phase = Phase.STAT;
+        query.usingCachedToken = cached;
+        send(query, cached ? CACHED_TOKEN_TIMEOUT_MS : TIMEOUT_MS);
+    }
+
+    private void send(PendingQuery query, long timeoutMillis) {
+        sendBuffer.flip();
+        try {
+            if (channel.send(sendBuffer, query.address) == 0) {
+                log.warn("❌ Query send buffer full for {}", query.address);
+                complete(query, null);
+                return;
+            }
+        } catch (IOException e) {
+            log.error("❌ Query I/O error for {} - {}", query.address, e.getMessage());
+            complete(query, null);
+            return;
+        }
+        query.deadline = System.currentTimeMillis() + timeoutMillis;
+        timerWheel.schedule(query, query.deadline);
+    }
+
+    private void receiveAll() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress source = channel.receive(receiveBuffer);
+            if (source == null) {
+                return;
+            }
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() < 5) {
+                continue;
+            }
+
+            byte type = receiveBuffer.get();
+            int sessionId = receiveBuffer.getInt();
+            PendingQuery query = pending.get(sessionId);
+            if (query == null || !query.address.equals(source)) {
+                log.debug("Ignoring unexpected query response from {}", source);
+                continue;
+            }
+
+            if (type == HANDSHAKE_TYPE && query.phase == Phase.HANDSHAKE) {
+                Integer challengeToken = parseChallengeToken(receiveBuffer);
+                if (challengeToken == null) {
+                    complete(query, null);
+                } else {
+                    tokens.put(query.address, new ChallengeToken(challengeToken,
+                            System.currentTimeMillis() + TOKEN_TTL_MS));
+                    sendStat(query, challengeToken, false);
+                }
+            } else if (type == STAT_TYPE) {
+                // 回退握手后，使用缓存 token 的旧请求仍可能迟到，同样可用
+                ServerStatus status = parseStatus(receiveBuffer);
+                if (status != null) {
+                    log.debug("✅ Query successful - {} has {}/{} player(s) online",
+                            query.address, status.onlinePlayers(), status.maxPlayers());
+                } else {
+                    log.warn("❌ Query failed - Could not parse stat response from {}", query.address);
+                }
+                complete(query, status);
+            }
+        }
+    }
+
+    private void onDeadline(PendingQuery query) {
+        if (query.future.isDone() || query.deadline > System.currentTimeMillis()) {
+            // 已完成，或已进入下一阶段并重新设置了超时（新的超时已另行注册，时间轮不会提前触发）
+            return;
+        }
+        if (query.usingCachedToken) {
+            // 缓存的 token 已被服务器拒绝（静默丢弃），透明回退到完整握手
+            log.debug("Cached challenge token rejected by {}, re-handshaking", query.address);
+            tokens.remove(query.address);
+            sendHandshake(query);
+            return;
+        }
+        log.warn("❌ Query timeout for {} (server may not have Query enabled)", query.address);
+        complete(query, null);
+    }
+
+    private void complete(PendingQuery query, ServerStatus result) {
+        pending.remove(query.sessionId);
+        query.future.complete(result);
+    }
+
+    /**
+     * 解析握手响应,提取 challenge token（以 \0 结尾的十进制字符串）
+     */
+    private Integer parseChallengeToken(ByteBuffer buffer) {
+        String token = readString(buffer);
+        try {
+            return Integer.parseInt(token.trim());
+        } catch (NumberFormatException e) {
+            log.error("Failed to parse handshake response: {}", token);
+            return null;
+        }
+    }
+
+    /**
+     * 解析完整状态响应
+     */
+    private ServerStatus parseStatus(ByteBuffer buffer) {
+        try {
+            return statParser.parse(buffer);
+        } catch (Exception e) {
+            log.error("Failed to parse stat response", e);
+            return null;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        StringBuilder value = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == 0) {
+                break;
+            }
+            value.append((char) b);
+        }
+        return value.toString();
+    }
+
+    private record ChallengeToken(int value, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private enum Phase {
+        HANDSHAKE,
+        STAT
+    }
+
+    /**
+     * 进行中的查询（除 future 外只在 I/O 线程中修改）
+     */
+    private static final class PendingQuery {
+        private final InetSocketAddress address;
+        private final CompletableFuture<ServerStatus> future = new CompletableFuture<>();
+        private int sessionId;
+        private Phase phase;
+        private boolean usingCachedToken;
+        private long deadline;
+
+        private PendingQuery(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+}
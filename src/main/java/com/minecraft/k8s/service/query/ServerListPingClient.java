@@ -0,0 +1,340 @@
+package com.minecraft.k8s.service.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Minecraft Server List Ping（TCP）客户端
+ *
+ * 用于未开启 Query 的服务器（如通过 MODRINTH_MODPACK 启动的整合包）。
+ * 所有连接都是非阻塞 SocketChannel，由单个 I/O 线程通过 Selector 驱动，超时由时间轮管理
+ *
+ * 协议: 握手包(next state = 1) + 状态请求包，响应为一个包含 JSON 字符串的数据包
+ */
+@Slf4j
+@Component
+public class ServerListPingClient {
+
+    static final int TIMEOUT_MS = 3000;
+    // 状态请求不关心协议版本，-1 为约定值
+    private static final int PROTOCOL_VERSION = -1;
+    private static final int NEXT_STATE_STATUS = 1;
+    private static final int PACKET_ID = 0x00;
+    private static final long TICK_MILLIS = 50;
+    private static final int WHEEL_SLOTS = 128;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    // 整合包的 mod 列表和图标可能较大
+    private static final int MAX_RESPONSE_SIZE = 2 * 1024 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<PingSession> submissions = new ConcurrentLinkedQueue<>();
+
+    // 只在 I/O 线程中访问
+    private TimerWheel<PingSession> timerWheel;
+
+    private Selector selector;
+    private Thread ioThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        selector = Selector.open();
+        timerWheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SLOTS, System.currentTimeMillis());
+
+        running = true;
+        ioThread = new Thread(this::runLoop, "minecraft-slp-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join(TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        selector.close();
+    }
+
+    /**
+     * 通过 Server List Ping 查询服务器状态
+     *
+     * @param address 已解析的服务器地址
+     * @return 服务器状态，超时或失败时结果为 null
+     */
+    public CompletableFuture<ServerStatus> ping(InetSocketAddress address) {
+        PingSession session = new PingSession(address);
+        if (address.isUnresolved()) {
+            log.warn("❌ Server list ping failed - Could not resolve {}", address);
+            session.future.complete(null);
+            return session.future;
+        }
+        submissions.add(session);
+        selector.wakeup();
+        return session.future;
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                selector.select(TICK_MILLIS);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handle((PingSession) key.attachment());
+                }
+                selector.selectedKeys().clear();
+                drainSubmissions();
+                timerWheel.advance(System.currentTimeMillis(), this::onDeadline);
+            } catch (Exception e) {
+                log.error("Server list ping loop error", e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            close((PingSession) key.attachment(), null);
+        }
+    }
+
+    private void drainSubmissions() {
+        PingSession session;
+        while ((session = submissions.poll()) != null) {
+            try {
+                session.channel = SocketChannel.open();
+                session.channel.configureBlocking(false);
+                session.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                boolean connected = session.channel.connect(session.address);
+                session.key = session.channel.register(selector,
+                        connected ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT, session);
+                if (connected) {
+                    session.request = buildRequest(session.address);
+                }
+                timerWheel.schedule(session, System.currentTimeMillis() + TIMEOUT_MS);
+            } catch (IOException e) {
+                log.debug("Server list ping connect failed for {} - {}", session.address, e.getMessage());
+                close(session, null);
+            }
+        }
+    }
+
+    private void handle(PingSession session) {
+        try {
+            SelectionKey key = session.key;
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isConnectable()) {
+                session.channel.finishConnect();
+                session.request = buildRequest(session.address);
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (key.isWritable()) {
+                session.channel.write(session.request);
+                if (!session.request.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } else if (key.isReadable()) {
+                read(session);
+            }
+        } catch (IOException e) {
+            log.debug("Server list ping I/O error for {} - {}", session.address, e.getMessage());
+            close(session, null);
+        }
+    }
+
+    private void read(PingSession session) throws IOException {
+        if (!session.response.hasRemaining()) {
+            if (session.response.capacity() >= MAX_RESPONSE_SIZE) {
+                log.warn("❌ Server list ping response too large from {}", session.address);
+                close(session, null);
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(Math.min(session.response.capacity() * 2, MAX_RESPONSE_SIZE));
+            session.response.flip();
+            larger.put(session.response);
+            session.response = larger;
+        }
+
+        int read = session.channel.read(session.response);
+        if (read < 0) {
+            close(session, null);
+            return;
+        }
+
+        // 响应包: VarInt 长度 + VarInt 包 ID + VarInt 字符串长度 + JSON
+        ByteBuffer frame = session.response.duplicate().flip();
+        Integer length = readVarInt(frame);
+        if (length == null || frame.remaining() < length) {
+            return; // 数据未读完整
+        }
+        frame.limit(frame.position() + length);
+        Integer packetId = readVarInt(frame);
+        Integer jsonLength = readVarInt(frame);
+        if (packetId == null || packetId != PACKET_ID || jsonLength == null || jsonLength > frame.remaining()) {
+            log.warn("❌ Server list ping returned a malformed packet from {}", session.address);
+            close(session, null);
+            return;
+        }
+        ServerStatus status = parseStatus(frame, jsonLength);
+        if (status != null) {
+            log.debug("✅ Server list ping successful - {} has {}/{} player(s) online",
+                    session.address, status.onlinePlayers(), status.maxPlayers());
+        }
+        close(session, status);
+    }
+
+    private void onDeadline(PingSession session) {
+        if (session.future.isDone()) {
+            return;
+        }
+        log.debug("Server list ping timeout for {}", session.address);
+        close(session, null);
+    }
+
+    private void close(PingSession session, ServerStatus result) {
+        if (session.key != null) {
+            session.key.cancel();
+        }
+        if (session.channel != null) {
+            try {
+                session.channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close server list ping channel for {}", session.address);
+            }
+        }
+        session.future.complete(result);
+    }
+
+    /**
+     * 构建握手包和状态请求包（一次写出）
+     */
+    static ByteBuffer buildRequest(InetSocketAddress address) {
+        byte[] host = address.getHostString().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer handshake = ByteBuffer.allocate(host.length + 32);
+        writeVarInt(handshake, PACKET_ID);
+        writeVarInt(handshake, PROTOCOL_VERSION);
+        writeVarInt(handshake, host.length);
+        handshake.put(host);
+        handshake.putShort((short) address.getPort());
+        writeVarInt(handshake, NEXT_STATE_STATUS);
+        handshake.flip();
+
+        ByteBuffer request = ByteBuffer.allocate(handshake.remaining() + 16);
+        writeVarInt(request, handshake.remaining());
+        request.put(handshake);
+        writeVarInt(request, 1); // 状态请求包长度
+        writeVarInt(request, PACKET_ID);
+        return request.flip();
+    }
+
+    /**
+     * 解析状态 JSON
+     */
+    private ServerStatus parseStatus(ByteBuffer frame, int jsonLength) {
+        try {
+            JsonNode root = objectMapper.readTree(frame.array(), frame.arrayOffset() + frame.position(), jsonLength);
+            JsonNode players = root.path("players");
+
+            List<String> names = new ArrayList<>();
+            for (JsonNode sample : players.path("sample")) {
+                String name = sample.path("name").asText(null);
+                if (name != null) {
+                    names.add(name);
+                }
+            }
+
+            return new ServerStatus(
+                    flattenText(root.path("description")),
+                    null,
+                    root.path("version").path("name").asText(null),
+                    null,
+                    null,
+                    players.has("online") ? players.get("online").asInt() : null,
+                    players.has("max") ? players.get("max").asInt() : null,
+                    List.copyOf(names));
+        } catch (IOException e) {
+            log.error("Failed to parse server list ping response", e);
+            return null;
+        }
+    }
+
+    /**
+     * description 可能是字符串，也可能是带 extra 的文本组件
+     */
+    private static String flattenText(JsonNode component) {
+        if (component.isMissingNode() || component.isNull()) {
+            return null;
+        }
+        if (component.isTextual()) {
+            return component.asText();
+        }
+        StringBuilder text = new StringBuilder(component.path("text").asText(""));
+        for (JsonNode extra : component.path("extra")) {
+            String part = flattenText(extra);
+            if (part != null) {
+                text.append(part);
+            }
+        }
+        return text.toString();
+    }
+
+    static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 读取 VarInt，数据不完整时返回 null
+     */
+    static Integer readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too big");
+    }
+
+    /**
+     * 进行中的 Ping（除 future 外只在 I/O 线程中访问）
+     */
+    private static final class PingSession {
+        private final InetSocketAddress address;
+        private final CompletableFuture<ServerStatus> future = new CompletableFuture<>();
+        private SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer request;
+        private ByteBuffer response = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        private PingSession(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.minecraft.k8s.service.query;
+
+import java.util.List;
+
+/**
+ * 服务器状态（来自 Query 完整状态响应）
+ *
+ * @param motd          服务器描述（hostname）
+ * @param gameType      游戏类型，通常为 SMP
+ * @param version       服务端报告的游戏版本
+ * @param plugins       插件信息（服务端软件及插件列表，原版为空）
+ * @param map           世界名称
+ * @param onlinePlayers 在线玩家数
+ * @param maxPlayers    最大玩家数
+ * @param players       在线玩家名称列表
+ */
+public record ServerStatus(
+        String motd,
+        String gameType,
+        String version,
+        String plugins,
+        String map,
+        Integer onlinePlayers,
+        Integer maxPlayers,
+        List<String> players) {
+}
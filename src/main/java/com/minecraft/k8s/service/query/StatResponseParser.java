@@ -0,0 +1,156 @@
+package com.minecraft.k8s.service.query;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query 完整状态响应解析器
+ *
+ * 直接在接收缓冲区上按字节扫描，键名按字节比较，只有需要保留的值才解码为字符串，
+ * 不再把整个响应先转换成 String。非线程安全，只能在 I/O 线程中使用
+ *
+ * 响应格式（type 与 session id 之后）:
+ * "splitnum\0" 0x80 0x00 | key\0value\0 ... \0 | 0x01 "player_\0\0" | name\0 ... \0
+ */
+class StatResponseParser {
+
+    private static final int KV_PADDING = 11;
+    private static final int PLAYER_PADDING = 10;
+
+    private static final byte[] HOSTNAME = bytes("hostname");
+    private static final byte[] GAME_TYPE = bytes("gametype");
+    private static final byte[] VERSION = bytes("version");
+    private static final byte[] PLUGINS = bytes("plugins");
+    private static final byte[] MAP = bytes("map");
+    private static final byte[] NUM_PLAYERS = bytes("numplayers");
+    private static final byte[] MAX_PLAYERS = bytes("maxplayers");
+
+    private byte[] scratch = new byte[256];
+
+    /**
+     * 解析完整状态响应
+     *
+     * @param buffer position 位于 session id 之后
+     * @return 解析结果，格式不正确时返回 null
+     */
+    ServerStatus parse(ByteBuffer buffer) {
+        if (buffer.remaining() < KV_PADDING) {
+            return null;
+        }
+        buffer.position(buffer.position() + KV_PADDING);
+
+        String motd = null;
+        String gameType = null;
+        String version = null;
+        String plugins = null;
+        String map = null;
+        Integer onlinePlayers = null;
+        Integer maxPlayers = null;
+
+        // 1. 键值段，以空键结束
+        while (buffer.hasRemaining()) {
+            int keyStart = buffer.position();
+            int keyEnd = indexOfNul(buffer, keyStart);
+            if (keyEnd < 0) {
+                return null;
+            }
+            int keyLength = keyEnd - keyStart;
+            buffer.position(keyEnd + 1);
+            if (keyLength == 0) {
+                break;
+            }
+
+            int valueStart = buffer.position();
+            int valueEnd = indexOfNul(buffer, valueStart);
+            if (valueEnd < 0) {
+                return null;
+            }
+            buffer.position(valueEnd + 1);
+
+            if (matches(buffer, keyStart, keyLength, HOSTNAME)) {
+                motd = decode(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyLength, GAME_TYPE)) {
+                gameType = decode(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyLength, VERSION)) {
+                version = decode(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyLength, PLUGINS)) {
+                plugins = decode(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyLength, MAP)) {
+                map = decode(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyLength, NUM_PLAYERS)) {
+                onlinePlayers = parseInt(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyLength, MAX_PLAYERS)) {
+                maxPlayers = parseInt(buffer, valueStart, valueEnd);
+            }
+        }
+
+        // 2. 玩家列表段（部分服务端不返回）
+        List<String> players = new ArrayList<>();
+        if (buffer.remaining() >= PLAYER_PADDING) {
+            buffer.position(buffer.position() + PLAYER_PADDING);
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                int end = indexOfNul(buffer, start);
+                if (end < 0 || end == start) {
+                    break;
+                }
+                players.add(decode(buffer, start, end));
+                buffer.position(end + 1);
+            }
+        }
+
+        return new ServerStatus(motd, gameType, version, plugins, map, onlinePlayers, maxPlayers,
+                List.copyOf(players));
+    }
+
+    private static int indexOfNul(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int length, byte[] key) {
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static Integer parseInt(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return null;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
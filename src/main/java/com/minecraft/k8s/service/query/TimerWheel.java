@@ -0,0 +1,75 @@
+package com.minecraft.k8s.service.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 简单的哈希时间轮，用于管理大量请求的超时
+ * 非线程安全，只能在 I/O 线程中使用
+ */
+class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+
+    TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 注册在 deadlineMillis 到期的任务
+     * 到期刻度向上取整，回调不会早于 deadlineMillis 执行（最多晚一个刻度）
+     */
+    void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        long ticks = deadlineTick - currentTick;
+        int slot = (int) (deadlineTick % slots.size());
+        slots.get(slot).add(new Entry<>(item, (ticks - 1) / slots.size()));
+    }
+
+    /**
+     * 推进到当前时间，对到期的任务执行回调
+     * 已完成的任务由回调自行忽略（惰性删除）
+     */
+    void advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            List<Entry<T>> bucket = slots.get((int) (currentTick % slots.size()));
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry<T>> expired = new ArrayList<>();
+            bucket.removeIf(entry -> {
+                if (entry.remainingRounds == 0) {
+                    expired.add(entry);
+                    return true;
+                }
+                entry.remainingRounds--;
+                return false;
+            });
+            expired.forEach(entry -> onExpired.accept(entry.item));
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private long remainingRounds;
+
+        private Entry(T item, long remainingRounds) {
+            this.item = item;
+            this.remainingRounds = remainingRounds;
+        }
+    }
+}
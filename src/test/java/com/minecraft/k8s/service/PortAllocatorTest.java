@@ -0,0 +1,145 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import com.minecraft.k8s.repository.ClusterRepository;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortAllocatorTest {
+
+    private static final int START_PORT = 31001;
+    // 70 个端口：第二个字只有一部分位属于端口范围
+    private static final int END_PORT = 31070;
+
+    private final K8sCommandExecutor k8sExecutor = mock(K8sCommandExecutor.class);
+    private final ClusterInformerManager informerManager = mock(ClusterInformerManager.class);
+    private final ClusterRepository clusterRepository = mock(ClusterRepository.class);
+    private final MinecraftServerRepository serverRepository = mock(MinecraftServerRepository.class);
+    private final ClusterInformers informers = mock(ClusterInformers.class);
+    private final ClusterEntity cluster = ClusterEntity.builder().id(1L).name("east").build();
+
+    private final List<V1Namespace> namespaces = new ArrayList<>();
+    private final List<Integer> databasePorts = new ArrayList<>();
+    private PortAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new PortAllocator(k8sExecutor, informerManager, clusterRepository, serverRepository);
+        ReflectionTestUtils.setField(allocator, "startPort", START_PORT);
+        ReflectionTestUtils.setField(allocator, "endPort", END_PORT);
+
+        when(informerManager.get(any())).thenReturn(Optional.of(informers));
+        when(informers.listNamespaces()).thenAnswer(invocation -> List.copyOf(namespaces));
+        when(serverRepository.findAllNodePorts()).thenAnswer(invocation -> List.copyOf(databasePorts));
+        when(clusterRepository.findById(1L)).thenReturn(Optional.of(cluster));
+    }
+
+    @Test
+    void allocatesEveryPortInRangeOnceThenFails() {
+        Set<Integer> ports = new HashSet<>();
+        for (int i = START_PORT; i <= END_PORT; i++) {
+            ports.add(allocator.allocatePort(cluster));
+        }
+
+        assertThat(ports).hasSize(END_PORT - START_PORT + 1);
+        assertThat(ports).allSatisfy(port -> assertThat(port).isBetween(START_PORT, END_PORT));
+        assertThatThrownBy(() -> allocator.allocatePort(cluster))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("No available ports");
+    }
+
+    @Test
+    void skipsPortsUsedByNamespacesAndDatabase() {
+        namespaces.add(namespace(31001, true));
+        // 旧版本创建的 Namespace 没有端口标签，从名称中解析
+        namespaces.add(namespace(31002, false));
+        databasePorts.add(31003);
+
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31004);
+    }
+
+    @Test
+    void keepsPortOfTerminatingNamespaceAfterServerRecordIsDeleted() {
+        namespaces.add(namespace(31001, true));
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31002);
+
+        // 服务器记录和 Service 都已删除，但 Namespace 仍在终止中
+        V1Namespace terminating = namespace(31001, true);
+        terminating.getMetadata().setDeletionTimestamp(OffsetDateTime.now());
+        namespaces.clear();
+        namespaces.add(terminating);
+        allocator.reconcileAll();
+
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31003);
+    }
+
+    @Test
+    void reconcileReleasesPortsNoLongerInUse() {
+        namespaces.add(namespace(31001, true));
+        databasePorts.add(31002);
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31003);
+
+        namespaces.clear();
+        databasePorts.clear();
+        allocator.reconcileAll();
+
+        // 31003 仍在预留宽限期内，不会被释放
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31001);
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31002);
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31004);
+    }
+
+    @Test
+    void reservationsPreventTwoClustersFromTakingTheSamePort() {
+        ClusterEntity other = ClusterEntity.builder().id(2L).name("west").build();
+
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31001);
+        assertThat(allocator.allocatePort(other)).isEqualTo(31002);
+    }
+
+    @Test
+    void listsNamespacesWhenInformersAreNotSynced() throws ApiException {
+        when(informerManager.get(any())).thenReturn(Optional.empty());
+        when(k8sExecutor.listManagedNamespaces(cluster)).thenReturn(List.of(namespace(31001, true)));
+
+        assertThat(allocator.allocatePort(cluster)).isEqualTo(31002);
+    }
+
+    @Test
+    void failsWhenNamespacesCannotBeListed() throws ApiException {
+        when(informerManager.get(any())).thenReturn(Optional.empty());
+        when(k8sExecutor.listManagedNamespaces(cluster)).thenThrow(new ApiException(503, "unavailable"));
+
+        assertThatThrownBy(() -> allocator.allocatePort(cluster))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to allocate port");
+    }
+
+    private static V1Namespace namespace(int port, boolean labeled) {
+        V1ObjectMeta metadata = new V1ObjectMeta().name("minecraft" + port);
+        if (labeled) {
+            metadata.putLabelsItem(ClusterInformers.NODE_PORT_LABEL, String.valueOf(port));
+        }
+        return new V1Namespace().metadata(metadata);
+    }
+}
@@ -0,0 +1,112 @@
+package com.minecraft.k8s.service;
+
+import com.minecraft.k8s.domain.entity.ClusterEntity;
+import com.minecraft.k8s.domain.entity.MinecraftServerEntity;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformerManager;
+import com.minecraft.k8s.infrastructure.informer.ClusterInformers;
+import com.minecraft.k8s.repository.MinecraftServerRepository;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerReconcilerTest {
+
+    private final ClusterService clusterService = mock(ClusterService.class);
+    private final MinecraftServerRepository repository = mock(MinecraftServerRepository.class);
+    private final ClusterInformerManager informerManager = mock(ClusterInformerManager.class);
+    private final K8sCommandExecutor k8sExecutor = mock(K8sCommandExecutor.class);
+    private final RolloutTracker rolloutTracker = mock(RolloutTracker.class);
+    private final ClusterInformers informers = mock(ClusterInformers.class);
+    private final ClusterEntity cluster = ClusterEntity.builder().id(1L).name("east").build();
+
+    private final List<V1Namespace> labelled = new ArrayList<>();
+    private final List<V1Namespace> unlabelled = new ArrayList<>();
+    private final List<MinecraftServerEntity> servers = new ArrayList<>();
+    private ServerReconciler reconciler;
+
+    @BeforeEach
+    void setUp() throws ApiException {
+        reconciler = new ServerReconciler(clusterService, repository, informerManager, k8sExecutor, rolloutTracker);
+        ReflectionTestUtils.setField(reconciler, "minIntervalMillis", 0L);
+
+        when(clusterService.getAllClusters()).thenReturn(List.of(cluster));
+        when(informerManager.get(1L)).thenReturn(Optional.of(informers));
+        when(informers.listStatefulSets()).thenReturn(List.of());
+        when(informers.listNamespaces()).thenAnswer(invocation -> List.copyOf(labelled));
+        when(k8sExecutor.listUnlabelledNamespaces(any(), eq("minecraft")))
+                .thenAnswer(invocation -> List.copyOf(unlabelled));
+        when(repository.findByClusterId(1L)).thenAnswer(invocation -> List.copyOf(servers));
+    }
+
+    @Test
+    void flagsUnlabelledLegacyNamespaceWithoutServerRecord() {
+        // 旧版本创建的命名空间：没有管理标签，不在 Informer 中
+        unlabelled.add(namespace("minecraft31001"));
+        unlabelled.add(namespace("minecraft31002"));
+        servers.add(server("minecraft31002"));
+
+        reconciler.tick();
+
+        assertThat(reconciler.getOrphans(1L)).containsExactly("minecraft31001");
+    }
+
+    @Test
+    void combinesLabelledAndUnlabelledOrphans() {
+        labelled.add(namespace("minecraft31003"));
+        unlabelled.add(namespace("minecraft31001"));
+        V1Namespace terminating = namespace("minecraft31002");
+        terminating.getMetadata().setDeletionTimestamp(OffsetDateTime.now());
+        unlabelled.add(terminating);
+
+        reconciler.tick();
+
+        assertThat(reconciler.getOrphans(1L)).containsExactly("minecraft31001", "minecraft31003");
+    }
+
+    @Test
+    void stopsListingUnlabelledNamespacesOnceMigrationIsDone() throws ApiException {
+        unlabelled.add(namespace("minecraft31001"));
+        reconciler.tick();
+        assertThat(reconciler.getOrphans(1L)).containsExactly("minecraft31001");
+
+        // 命名空间被重新应用后带上了管理标签
+        unlabelled.clear();
+        labelled.add(namespace("minecraft31001"));
+        reconciler.tick();
+        reconciler.tick();
+
+        verify(k8sExecutor, times(2)).listUnlabelledNamespaces(any(), eq("minecraft"));
+        assertThat(reconciler.getOrphans(1L)).containsExactly("minecraft31001");
+    }
+
+    private static V1Namespace namespace(String name) {
+        return new V1Namespace().metadata(new V1ObjectMeta().name(name));
+    }
+
+    private static MinecraftServerEntity server(String namespace) {
+        MinecraftServerEntity server = new MinecraftServerEntity();
+        server.setClusterId(1L);
+        server.setName(namespace);
+        server.setNamespace(namespace);
+        server.setStatus("MISSING");
+        server.setCreatedAt(LocalDateTime.now().minusDays(1));
+        return server;
+    }
+}
@@ -0,0 +1,54 @@
+package com.minecraft.k8s.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YamlTemplateTest {
+
+    @Test
+    void rendersSameOutputAsChainedReplace() throws IOException {
+        String source = K8sResourceBuilder.loadTemplate();
+        Map<String, String> values = YamlTemplateBenchmark.sampleValues();
+
+        String rendered = YamlTemplate.compile(source, K8sResourceBuilder.TEMPLATE_PARAMS).render(values);
+
+        assertThat(rendered).isEqualTo(YamlTemplateBenchmark.replaceAll(source, values));
+        assertThat(rendered).doesNotContain("${");
+    }
+
+    @Test
+    void rendersLiteralsAndPlaceholdersInOrder() {
+        YamlTemplate template = YamlTemplate.compile("a: ${x}\nb: ${y}${x}\n", List.of("x", "y"));
+
+        assertThat(template.render(Map.of("x", "1", "y", "22"))).isEqualTo("a: 1\nb: 221\n");
+    }
+
+    @Test
+    void rejectsUnknownPlaceholderAtCompileTime() {
+        assertThatThrownBy(() -> YamlTemplate.compile("a: ${x}\nb: ${typo}\n", List.of("x")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("${typo}");
+    }
+
+    @Test
+    void rejectsUnterminatedPlaceholderAtCompileTime() {
+        assertThatThrownBy(() -> YamlTemplate.compile("a: ${x", List.of("x")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Unterminated placeholder");
+    }
+
+    @Test
+    void rejectsMissingValueAtRenderTime() {
+        YamlTemplate template = YamlTemplate.compile("a: ${x}", List.of("x"));
+
+        assertThatThrownBy(() -> template.render(Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing template value: x");
+    }
+}
@@ -0,0 +1,183 @@
+package com.minecraft.k8s.service.query;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryEngineTest {
+
+    private final QueryEngine engine = new QueryEngine();
+    private FakeQueryServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine.start();
+        server = new FakeQueryServer();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+        engine.stop();
+    }
+
+    @Test
+    void queriesFullStatusOverHandshake() throws Exception {
+        ServerStatus status = engine.queryStatus(server.address()).get(5, TimeUnit.SECONDS);
+
+        assertThat(status).isNotNull();
+        assertThat(status.motd()).isEqualTo("A Minecraft Server");
+        assertThat(status.onlinePlayers()).isEqualTo(2);
+        assertThat(status.maxPlayers()).isEqualTo(20);
+        assertThat(status.players()).containsExactly("alice", "bob");
+        assertThat(server.handshakes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reusesCachedChallengeToken() throws Exception {
+        assertThat(engine.queryStatus(server.address()).get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(engine.queryStatus(server.address()).get(5, TimeUnit.SECONDS)).isNotNull();
+
+        assertThat(server.handshakes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToHandshakeWhenCachedTokenIsDropped() throws Exception {
+        assertThat(engine.queryStatus(server.address()).get(5, TimeUnit.SECONDS)).isNotNull();
+        // 服务器更换了 challenge token，使用旧 token 的状态请求被静默丢弃
+        server.rotateToken();
+
+        long start = System.nanoTime();
+        ServerStatus status = engine.queryStatus(server.address()).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(status).isNotNull();
+        assertThat(server.droppedStats.get()).isEqualTo(1);
+        assertThat(server.handshakes.get()).isEqualTo(2);
+        // 只等待缓存 token 的短超时，而不是完整的查询超时
+        assertThat(elapsedMillis).isLessThan(QueryEngine.TIMEOUT_MS);
+    }
+
+    @Test
+    void timesOutWhenServerNeverAnswers() throws Exception {
+        server.silent = true;
+
+        ServerStatus status = engine.queryStatus(server.address())
+                .get(QueryEngine.TIMEOUT_MS + 2000, TimeUnit.MILLISECONDS);
+
+        assertThat(status).isNull();
+    }
+
+    /**
+     * 最小的 Query 协议服务端：只接受当前 challenge token 的状态请求
+     */
+    private static final class FakeQueryServer implements AutoCloseable {
+        private final DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        private final Thread thread = new Thread(this::serve, "fake-query-server");
+        private final AtomicInteger handshakes = new AtomicInteger();
+        private final AtomicInteger droppedStats = new AtomicInteger();
+        private volatile int token = 9513307;
+        private volatile boolean silent;
+
+        private FakeQueryServer() throws SocketException {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        InetSocketAddress address() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), socket.getLocalPort());
+        }
+
+        void rotateToken() {
+            token++;
+        }
+
+        private void serve() {
+            byte[] buffer = new byte[1500];
+            while (!socket.isClosed()) {
+                try {
+                    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    socket.receive(packet);
+                    if (silent) {
+                        continue;
+                    }
+                    ByteBuffer request = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+                    request.getShort(); // Magic
+                    byte type = request.get();
+                    int sessionId = request.getInt();
+                    byte[] response;
+                    if (type == 9) {
+                        handshakes.incrementAndGet();
+                        response = handshakeResponse(sessionId);
+                    } else if (request.getInt() == token) {
+                        response = statResponse(sessionId);
+                    } else {
+                        droppedStats.incrementAndGet();
+                        continue;
+                    }
+                    socket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private byte[] handshakeResponse(int sessionId) {
+            ByteArrayOutputStream out = header((byte) 9, sessionId);
+            writeString(out, Integer.toString(token));
+            return out.toByteArray();
+        }
+
+        private static byte[] statResponse(int sessionId) {
+            ByteArrayOutputStream out = header((byte) 0, sessionId);
+            writeString(out, "splitnum");
+            out.write(0x80);
+            out.write(0);
+            writeString(out, "hostname");
+            writeString(out, "A Minecraft Server");
+            writeString(out, "numplayers");
+            writeString(out, "2");
+            writeString(out, "maxplayers");
+            writeString(out, "20");
+            out.write(0);
+            out.write(1);
+            writeString(out, "player_");
+            out.write(0);
+            writeString(out, "alice");
+            writeString(out, "bob");
+            out.write(0);
+            return out.toByteArray();
+        }
+
+        private static ByteArrayOutputStream header(byte type, int sessionId) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(type);
+            out.writeBytes(ByteBuffer.allocate(4).putInt(sessionId).array());
+            return out;
+        }
+
+        private static void writeString(ByteArrayOutputStream out, String value) {
+            out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            out.write(0);
+        }
+
+        @Override
+        public void close() {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.minecraft.k8s.service.query;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServerListPingClientTest {
+
+    private final ServerListPingClient client = new ServerListPingClient();
+    private ServerSocket server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        client.start();
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+        client.stop();
+    }
+
+    @Test
+    void varIntRoundTripsWithExpectedLength() throws IOException {
+        int[] values = {0, 1, 127, 128, 255, 25565, 2_097_151, 2_097_152, Integer.MAX_VALUE, -1};
+        int[] lengths = {1, 1, 1, 2, 2, 3, 3, 4, 5, 5};
+        for (int i = 0; i < values.length; i++) {
+            ByteBuffer buffer = ByteBuffer.allocate(5);
+            ServerListPingClient.writeVarInt(buffer, values[i]);
+            assertThat(buffer.position()).as("length of %d", values[i]).isEqualTo(lengths[i]);
+
+            buffer.flip();
+            assertThat(ServerListPingClient.readVarInt(buffer)).isEqualTo(values[i]);
+            assertThat(buffer.hasRemaining()).isFalse();
+        }
+    }
+
+    @Test
+    void readVarIntReturnsNullWhenIncomplete() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) 0xDD, (byte) 0xC7});
+
+        assertThat(ServerListPingClient.readVarInt(buffer)).isNull();
+    }
+
+    @Test
+    void readVarIntRejectsMoreThanFiveBytes() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01});
+
+        assertThatThrownBy(() -> ServerListPingClient.readVarInt(buffer))
+                .isInstanceOf(IOException.class)
+                .hasMessage("VarInt too big");
+    }
+
+    @Test
+    void buildsHandshakeFollowedByStatusRequest() throws IOException {
+        ByteBuffer request = ServerListPingClient.buildRequest(
+                InetSocketAddress.createUnresolved("mc.example.com", 25565));
+
+        int handshakeLength = ServerListPingClient.readVarInt(request);
+        int handshakeEnd = request.position() + handshakeLength;
+        assertThat(ServerListPingClient.readVarInt(request)).isZero();
+        assertThat(ServerListPingClient.readVarInt(request)).isEqualTo(-1);
+        byte[] host = new byte[ServerListPingClient.readVarInt(request)];
+        request.get(host);
+        assertThat(new String(host, StandardCharsets.UTF_8)).isEqualTo("mc.example.com");
+        assertThat(Short.toUnsignedInt(request.getShort())).isEqualTo(25565);
+        assertThat(ServerListPingClient.readVarInt(request)).isEqualTo(1);
+        assertThat(request.position()).isEqualTo(handshakeEnd);
+
+        // 状态请求: 长度 1，包 ID 0
+        assertThat(ServerListPingClient.readVarInt(request)).isEqualTo(1);
+        assertThat(ServerListPingClient.readVarInt(request)).isZero();
+        assertThat(request.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void pingsServerWithFragmentedResponse() throws Exception {
+        String json = """
+                {"version":{"name":"1.21.4","protocol":769},\
+                "players":{"max":20,"online":2,"sample":[{"name":"alice","id":"0"},{"name":"bob","id":"1"}]},\
+                "description":{"text":"A ","extra":[{"text":"Modded"},"Server"]}}""";
+        Thread responder = respond(response(json), 7);
+
+        ServerStatus status = client.ping(address()).get(5, TimeUnit.SECONDS);
+        responder.join(5000);
+
+        assertThat(status).isNotNull();
+        assertThat(status.motd()).isEqualTo("A ModdedServer");
+        assertThat(status.version()).isEqualTo("1.21.4");
+        assertThat(status.onlinePlayers()).isEqualTo(2);
+        assertThat(status.maxPlayers()).isEqualTo(20);
+        assertThat(status.players()).containsExactly("alice", "bob");
+    }
+
+    @Test
+    void growsBufferForLargeResponses() throws Exception {
+        // 整合包的 mod 列表和图标会超过初始缓冲区
+        String json = "{\"description\":\"big\",\"favicon\":\"" + "A".repeat(100_000) + "\"}";
+        Thread responder = respond(response(json), 4096);
+
+        ServerStatus status = client.ping(address()).get(5, TimeUnit.SECONDS);
+        responder.join(5000);
+
+        assertThat(status).isNotNull();
+        assertThat(status.motd()).isEqualTo("big");
+    }
+
+    @Test
+    void completesWithNullWhenConnectionIsClosedEarly() throws Exception {
+        Thread responder = respond(new byte[0], 1);
+
+        ServerStatus status = client.ping(address()).get(5, TimeUnit.SECONDS);
+        responder.join(5000);
+
+        assertThat(status).isNull();
+    }
+
+    @Test
+    void timesOutWhenServerNeverAnswers() throws Exception {
+        // 接受连接但从不响应
+        Thread responder = Thread.ofVirtual().start(() -> {
+            try (Socket socket = server.accept()) {
+                socket.getInputStream().readAllBytes();
+            } catch (IOException ignored) {
+            }
+        });
+
+        ServerStatus status = client.ping(address())
+                .get(ServerListPingClient.TIMEOUT_MS + 2000, TimeUnit.MILLISECONDS);
+        responder.join(5000);
+
+        assertThat(status).isNull();
+    }
+
+    private InetSocketAddress address() {
+        return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+    }
+
+    /**
+     * 读取完整请求后分块写出响应，每块之间短暂停顿以模拟 TCP 分段
+     */
+    private Thread respond(byte[] response, int chunkSize) {
+        return Thread.ofVirtual().start(() -> {
+            try (Socket socket = server.accept()) {
+                socket.setTcpNoDelay(true);
+                readRequest(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                for (int offset = 0; offset < response.length; offset += chunkSize) {
+                    out.write(response, offset, Math.min(chunkSize, response.length - offset));
+                    out.flush();
+                    Thread.sleep(2);
+                }
+            } catch (IOException | InterruptedException ignored) {
+            }
+        });
+    }
+
+    /**
+     * 读取握手包和状态请求包（两个带长度前缀的数据包）
+     */
+    private static void readRequest(InputStream in) throws IOException {
+        for (int packet = 0; packet < 2; packet++) {
+            int length = 0;
+            for (int i = 0; ; i++) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new IOException("Unexpected end of request");
+                }
+                length |= (b & 0x7F) << (7 * i);
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            in.readNBytes(length);
+        }
+    }
+
+    /**
+     * 构造状态响应包: VarInt 长度 + 包 ID + VarInt 字符串长度 + JSON
+     */
+    private static byte[] response(String json) {
+        byte[] content = json.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(content.length + 10);
+        ServerListPingClient.writeVarInt(body, 0x00);
+        ServerListPingClient.writeVarInt(body, content.length);
+        body.put(content).flip();
+
+        ByteBuffer packet = ByteBuffer.allocate(body.remaining() + 5);
+        ServerListPingClient.writeVarInt(packet, body.remaining());
+        packet.put(body).flip();
+        return Arrays.copyOf(packet.array(), packet.limit());
+    }
+}
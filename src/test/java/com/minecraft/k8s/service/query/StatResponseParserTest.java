@@ -0,0 +1,136 @@
+package com.minecraft.k8s.service.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatResponseParserTest {
+
+    private static final byte[] KV_PADDING = {'s', 'p', 'l', 'i', 't', 'n', 'u', 'm', 0, (byte) 0x80, 0};
+    private static final byte[] PLAYER_PADDING = {0x01, 'p', 'l', 'a', 'y', 'e', 'r', '_', 0, 0};
+
+    private final StatResponseParser parser = new StatResponseParser();
+
+    @Test
+    void parsesKeyValuesAndPlayers() {
+        ByteBuffer buffer = response(new String[][]{
+                {"hostname", "A Minecraft Server §a绿色"},
+                {"gametype", "SMP"},
+                {"game_id", "MINECRAFT"},
+                {"version", "1.21.4"},
+                {"plugins", "Paper on 1.21.4: LuckPerms 5.4"},
+                {"map", "world"},
+                {"numplayers", "2"},
+                {"maxplayers", "20"},
+                {"hostport", "25565"},
+                {"hostip", "0.0.0.0"}
+        }, "Steve", "Alex");
+
+        ServerStatus status = parser.parse(buffer);
+
+        assertThat(status).isEqualTo(new ServerStatus("A Minecraft Server §a绿色", "SMP", "1.21.4",
+                "Paper on 1.21.4: LuckPerms 5.4", "world", 2, 20, List.of("Steve", "Alex")));
+    }
+
+    @Test
+    void startsAtBufferPosition() {
+        byte[] body = toArray(response(new String[][]{{"numplayers", "0"}}));
+        ByteBuffer buffer = ByteBuffer.allocate(body.length + 5);
+        // type 与 session id
+        buffer.put(new byte[]{0x00, 0x01, 0x02, 0x03, 0x04}).put(body).flip();
+        buffer.position(5);
+
+        ServerStatus status = parser.parse(buffer);
+
+        assertThat(status).isNotNull();
+        assertThat(status.onlinePlayers()).isZero();
+        assertThat(status.players()).isEmpty();
+    }
+
+    @Test
+    void toleratesMissingPlayerSection() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(KV_PADDING);
+        writeString(out, "maxplayers");
+        writeString(out, "10");
+        out.write(0);
+
+        ServerStatus status = parser.parse(ByteBuffer.wrap(out.toByteArray()));
+
+        assertThat(status).isNotNull();
+        assertThat(status.maxPlayers()).isEqualTo(10);
+        assertThat(status.motd()).isNull();
+        assertThat(status.players()).isEmpty();
+    }
+
+    @Test
+    void leavesNonNumericPlayerCountsUnset() {
+        ServerStatus status = parser.parse(response(new String[][]{
+                {"numplayers", "-1"},
+                {"maxplayers", ""}
+        }));
+
+        assertThat(status).isNotNull();
+        assertThat(status.onlinePlayers()).isNull();
+        assertThat(status.maxPlayers()).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedResponses() {
+        assertThat(parser.parse(ByteBuffer.wrap(new byte[]{'s', 'p', 'l', 'i', 't'}))).isNull();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(KV_PADDING);
+        writeString(out, "hostname");
+        out.writeBytes("no terminator".getBytes(StandardCharsets.UTF_8));
+        assertThat(parser.parse(ByteBuffer.wrap(out.toByteArray()))).isNull();
+    }
+
+    @Test
+    void decodesValuesLongerThanScratchBufferAcrossCalls() {
+        String longMotd = "x".repeat(1000) + "末尾";
+
+        ServerStatus first = parser.parse(response(new String[][]{{"hostname", longMotd}}, "Notch"));
+        ServerStatus second = parser.parse(response(new String[][]{{"hostname", "short"}}, "jeb_"));
+
+        assertThat(first.motd()).isEqualTo(longMotd);
+        assertThat(first.players()).containsExactly("Notch");
+        assertThat(second.motd()).isEqualTo("short");
+        assertThat(second.players()).containsExactly("jeb_");
+    }
+
+    /**
+     * 构造 session id 之后的完整状态响应
+     */
+    private static ByteBuffer response(String[][] values, String... players) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(KV_PADDING);
+        for (String[] entry : values) {
+            writeString(out, entry[0]);
+            writeString(out, entry[1]);
+        }
+        out.write(0);
+        out.writeBytes(PLAYER_PADDING);
+        for (String player : players) {
+            writeString(out, player);
+        }
+        out.write(0);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        out.write(0);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,89 @@
+package com.minecraft.k8s.service.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private static final long TICK_MILLIS = 50;
+    private static final int SLOTS = 128;
+
+    @Test
+    void everyEntryFiresAtOrAfterItsDeadline() {
+        Random random = new Random(42);
+        long now = 1_000_003;
+        TimerWheel<Integer> wheel = new TimerWheel<>(TICK_MILLIS, SLOTS, now);
+
+        Map<Integer, Long> deadlines = new HashMap<>();
+        Map<Integer, Long> firedAt = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            // 与 I/O 线程一样，在刻度之间的任意时刻注册，超时跨越多圈
+            now += random.nextInt(20);
+            long deadline = now + 1 + random.nextInt((int) (TICK_MILLIS * SLOTS * 3));
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+            if (random.nextInt(10) == 0) {
+                long current = now;
+                wheel.advance(current, item -> firedAt.put(item, current));
+            }
+        }
+
+        long end = deadlines.values().stream().mapToLong(Long::longValue).max().orElseThrow() + TICK_MILLIS;
+        while (now <= end) {
+            now += 1 + random.nextInt((int) TICK_MILLIS);
+            long current = now;
+            wheel.advance(current, item -> firedAt.put(item, current));
+        }
+
+        assertThat(firedAt).hasSize(deadlines.size());
+        deadlines.forEach((item, deadline) -> assertThat(firedAt.get(item))
+                .as("entry %d with deadline %d", item, deadline)
+                .isGreaterThanOrEqualTo(deadline));
+    }
+
+    @Test
+    void entryFiresWithinOneTickAfterItsDeadline() {
+        long start = 10_017;
+        TimerWheel<String> wheel = new TimerWheel<>(TICK_MILLIS, SLOTS, start);
+        long deadline = start + 3_210;
+        wheel.schedule("query", deadline);
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = start; now <= deadline + TICK_MILLIS; now++) {
+            long current = now;
+            wheel.advance(current, item -> fired.add(current));
+        }
+
+        assertThat(fired).hasSize(1);
+        assertThat(fired.get(0)).isBetween(deadline, deadline + TICK_MILLIS);
+    }
+
+    @Test
+    void entryScheduledFromCallbackFiresLater() {
+        long start = 0;
+        TimerWheel<String> wheel = new TimerWheel<>(TICK_MILLIS, SLOTS, start);
+        wheel.schedule("first", 1_000);
+
+        Map<String, Long> fired = new HashMap<>();
+        for (long now = start; now <= 5_000; now += 7) {
+            long current = now;
+            wheel.advance(current, item -> {
+                fired.put(item, current);
+                if (item.equals("first")) {
+                    // 例如缓存 token 超时后回退到握手，重新注册下一阶段的超时
+                    wheel.schedule("second", current + 3_000);
+                }
+            });
+        }
+
+        assertThat(fired.get("first")).isGreaterThanOrEqualTo(1_000);
+        assertThat(fired.get("second")).isGreaterThanOrEqualTo(fired.get("first") + 3_000);
+    }
+}